@@ -0,0 +1,117 @@
+package com.payme.adapters.limiter;
+
+import com.payme.ports.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for the adaptive limiter against a simulated database.
+ *
+ * The "database" has a fixed number of connections; each call holds one for
+ * the current service time, so beyond that concurrency calls only queue.
+ * Clients hammer the limiter well above capacity while the service time goes
+ * from healthy to slow and back, and the limit, latency estimates and
+ * throughput are printed every half second.
+ *
+ * Run with:
+ * ./mvnw -Pjmh test-compile exec:exec -Dbenchmark.main=com.payme.adapters.limiter.VegasLimitSimulation -Djmh.args=
+ */
+public class VegasLimitSimulation {
+
+    private static final int DB_CONNECTIONS = 10;
+    private static final int CLIENTS = 200;
+    private static final long[] PHASE_SERVICE_MILLIS = { 5, 25, 5 };
+    private static final long PHASE_MILLIS = 8_000;
+    private static final long REPORT_MILLIS = 500;
+
+    private static final Semaphore connections = new Semaphore(DB_CONNECTIONS, true);
+    private static volatile long serviceMillis = PHASE_SERVICE_MILLIS[0];
+
+    public static void main(String[] args) throws InterruptedException {
+        VegasLimit algorithm = new VegasLimit(20, 1, 500);
+        ConcurrencyLimiter limiter = new QueueingConcurrencyLimiter(
+                "simulation", algorithm, 0, Duration.ZERO, Duration.ofSeconds(1), new SimpleMeterRegistry());
+
+        AtomicLong completed = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        long[] latencies = new long[1 << 16];
+        AtomicLong latencyCount = new AtomicLong();
+
+        for (int i = 0; i < CLIENTS; i++) {
+            Thread client = new Thread(() -> {
+                while (true) {
+                    Optional<ConcurrencyLimiter.Permit> permit = limiter.tryAcquire();
+                    if (permit.isEmpty()) {
+                        rejected.incrementAndGet();
+                        sleep(2);
+                        continue;
+                    }
+                    long started = System.nanoTime();
+                    try {
+                        callDatabase();
+                    } finally {
+                        permit.get().release();
+                    }
+                    latencies[(int) (latencyCount.getAndIncrement() & (latencies.length - 1))] = System.nanoTime() - started;
+                    completed.incrementAndGet();
+                }
+            });
+            client.setDaemon(true);
+            client.start();
+        }
+
+        System.out.printf("%-8s %-8s %-6s %-10s %-10s %-10s %-10s %-10s%n",
+                "time", "db (ms)", "limit", "rtt", "no-load", "ok/s", "shed/s", "p99 (ms)");
+
+        long start = System.currentTimeMillis();
+        long lastCompleted = 0;
+        long lastRejected = 0;
+        for (int phase = 0; phase < PHASE_SERVICE_MILLIS.length; phase++) {
+            serviceMillis = PHASE_SERVICE_MILLIS[phase];
+            for (long t = 0; t < PHASE_MILLIS; t += REPORT_MILLIS) {
+                long samplesBefore = latencyCount.get();
+                Thread.sleep(REPORT_MILLIS);
+                long samples = Math.min(latencyCount.get() - samplesBefore, latencies.length);
+
+                long[] window = new long[(int) samples];
+                for (int i = 0; i < samples; i++) {
+                    window[i] = latencies[(int) ((samplesBefore + i) & (latencies.length - 1))];
+                }
+                Arrays.sort(window);
+                double p99 = samples == 0 ? 0 : window[(int) (samples * 0.99)] / 1_000_000.0;
+
+                long done = completed.get();
+                long shed = rejected.get();
+                System.out.printf("%-8.1f %-8d %-6d %-10.1f %-10.1f %-10d %-10d %-10.1f%n",
+                        (System.currentTimeMillis() - start) / 1000.0, serviceMillis, limiter.getLimit(),
+                        algorithm.getRttMillis(), algorithm.getNoLoadRttMillis(),
+                        (done - lastCompleted) * 1000 / REPORT_MILLIS, (shed - lastRejected) * 1000 / REPORT_MILLIS, p99);
+                lastCompleted = done;
+                lastRejected = shed;
+            }
+        }
+    }
+
+    private static void callDatabase() {
+        connections.acquireUninterruptibly();
+        try {
+            sleep(serviceMillis);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
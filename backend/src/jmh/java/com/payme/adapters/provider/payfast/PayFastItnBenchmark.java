@@ -0,0 +1,96 @@
+package com.payme.adapters.provider.payfast;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing and verifying a PayFast ITN with the map-based path
+ * (split, URLDecoder, HashMap, PayFastSignatureService) against
+ * PayFastItnVerifier.
+ *
+ * Run with: ./mvnw -Pjmh test-compile exec:exec
+ * The gc profiler reports gc.alloc.rate.norm, the bytes allocated per ITN.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayFastItnBenchmark {
+
+    private static final String PASSPHRASE = "jt7NOE43FZPn";
+
+    private byte[] body;
+    private PayFastItnVerifier verifier;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("m_payment_id", "inv_6f1c2a9e-3b7d-4c1e-9a55-0d2f8e7b4c31");
+        params.put("pf_payment_id", "1089250");
+        params.put("payment_status", "COMPLETE");
+        params.put("item_name", "Invoice inv_6f1c2a9e");
+        params.put("item_description", "Order #1042 - 2 items");
+        params.put("amount_gross", "250.00");
+        params.put("amount_fee", "-5.75");
+        params.put("amount_net", "244.25");
+        params.put("custom_str1", "att_9d0e4b2f-71a6-4f83-b1c2-5e6a7d8f9012");
+        params.put("custom_str2", "");
+        params.put("name_first", "Thandi");
+        params.put("name_last", "Mokoena");
+        params.put("email_address", "thandi.mokoena@example.com");
+        params.put("merchant_id", "10000100");
+        params.put("signature", PayFastSignatureService.generateSignature(params, PASSPHRASE));
+
+        StringBuilder form = new StringBuilder();
+        params.forEach((key, value) -> {
+            if (form.length() > 0) {
+                form.append('&');
+            }
+            form.append(key).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        });
+
+        body = form.toString().getBytes(StandardCharsets.UTF_8);
+        verifier = new PayFastItnVerifier(PASSPHRASE);
+
+        if (!mapBased() || !singlePass()) {
+            throw new IllegalStateException("Benchmark ITN does not verify");
+        }
+    }
+
+    @Benchmark
+    public boolean mapBased() {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : new String(body, StandardCharsets.UTF_8).split("&")) {
+            String[] keyValue = pair.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8),
+                        URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+            }
+        }
+        String signature = params.remove("signature");
+        return PayFastSignatureService.verifySignature(params, signature, PASSPHRASE);
+    }
+
+    @Benchmark
+    public boolean singlePass() {
+        return verifier.verify(verifier.parse(body));
+    }
+}
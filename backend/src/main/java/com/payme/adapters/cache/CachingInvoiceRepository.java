@@ -0,0 +1,205 @@
+package com.payme.adapters.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.payme.domain.Invoice;
+import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import com.payme.ports.InvoiceExpiryBacklog;
+import com.payme.ports.InvoiceListQuery;
+import com.payme.ports.InvoiceRepository;
+import com.payme.ports.OpenInvoiceExpiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache in front of another {@link InvoiceRepository}.
+ *
+ * Entries are bounded by size and expire after a TTL that depends on the
+ * invoice's status: open invoices are only kept briefly, because another
+ * instance may change them, while SUCCEEDED and EXPIRED invoices are final and
+ * kept much longer. Every write through this repository evicts the invoice,
+ * and evicts it again once the surrounding transaction completes, so a read
+ * racing an uncommitted write cannot leave the old state behind.
+ *
+ * Inside a read-write transaction only final invoices are served from the
+ * cache; open ones are read from the database, so state-changing work never
+ * acts on a stale copy. Cached invoices are copied on the way out, since
+ * callers mutate the domain object.
+ */
+public class CachingInvoiceRepository implements InvoiceRepository {
+
+    private static final Set<InvoiceStatus> FINAL_STATUSES = Set.of(InvoiceStatus.SUCCEEDED, InvoiceStatus.EXPIRED);
+
+    private final InvoiceRepository delegate;
+    private final Cache<InvoiceId, Invoice> cache;
+
+    public CachingInvoiceRepository(
+            InvoiceRepository delegate,
+            long maximumSize,
+            Duration openTtl,
+            Duration finalTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new StatusExpiry(openTtl.toNanos(), finalTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "invoices");
+    }
+
+    @Override
+    public Invoice insert(Invoice invoice) {
+        Invoice inserted = delegate.insert(invoice);
+        evict(invoice.getInvoiceId());
+        return inserted;
+    }
+
+    @Override
+    public void insertAll(List<Invoice> invoices) {
+        delegate.insertAll(invoices);
+        invoices.forEach(invoice -> evict(invoice.getInvoiceId()));
+    }
+
+    @Override
+    public Invoice update(Invoice invoice) {
+        try {
+            return delegate.update(invoice);
+        } finally {
+            // Also on a version conflict, where the cached copy may be the stale one
+            evict(invoice.getInvoiceId());
+        }
+    }
+
+    @Override
+    public boolean compareAndSetStatus(
+            InvoiceId invoiceId,
+            Set<InvoiceStatus> expectedStatuses,
+            InvoiceStatus newStatus,
+            Instant updatedAt
+    ) {
+        try {
+            return delegate.compareAndSetStatus(invoiceId, expectedStatuses, newStatus, updatedAt);
+        } finally {
+            evict(invoiceId);
+        }
+    }
+
+    @Override
+    public List<InvoiceId> expireDue(Instant createdCutoff, Instant pendingCutoff, Instant updatedAt, int limit) {
+        List<InvoiceId> expired = delegate.expireDue(createdCutoff, pendingCutoff, updatedAt, limit);
+        expired.forEach(this::evict);
+        return expired;
+    }
+
+    @Override
+    public InvoiceExpiryBacklog measureExpiryBacklog(Instant createdCutoff, Instant pendingCutoff, int sampleLimit) {
+        return delegate.measureExpiryBacklog(createdCutoff, pendingCutoff, sampleLimit);
+    }
+
+    @Override
+    public List<OpenInvoiceExpiry> findOpenExpiries(OpenInvoiceExpiry after, int limit) {
+        return delegate.findOpenExpiries(after, limit);
+    }
+
+    @Override
+    public void findByMerchant(InvoiceListQuery query, int limit, Consumer<Invoice> consumer) {
+        delegate.findByMerchant(query, limit, consumer);
+    }
+
+    @Override
+    public Optional<Invoice> findById(InvoiceId invoiceId) {
+        if (inReadWriteTransaction()) {
+            Invoice cached = cache.getIfPresent(invoiceId);
+            if (cached != null && FINAL_STATUSES.contains(cached.getStatus())) {
+                return Optional.of(copy(cached));
+            }
+            return delegate.findById(invoiceId);
+        }
+
+        // Loads run under the entry's lock, so an eviction issued while one is
+        // in flight waits for it and then removes what it loaded
+        Invoice invoice = cache.get(invoiceId, id -> delegate.findById(id).orElse(null));
+        return Optional.ofNullable(invoice).map(CachingInvoiceRepository::copy);
+    }
+
+    @Override
+    public boolean existsById(InvoiceId invoiceId) {
+        if (cache.getIfPresent(invoiceId) != null) {
+            return true;
+        }
+        return delegate.existsById(invoiceId);
+    }
+
+    private void evict(InvoiceId invoiceId) {
+        cache.invalidate(invoiceId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(invoiceId);
+                }
+            });
+        }
+    }
+
+    private static boolean inReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static Invoice copy(Invoice invoice) {
+        return new Invoice(
+                invoice.getInvoiceId(),
+                invoice.getMerchantId(),
+                invoice.getMoney(),
+                invoice.getDescription(),
+                invoice.getStatus(),
+                invoice.getExpiresAt(),
+                invoice.getCreatedAt(),
+                invoice.getUpdatedAt(),
+                invoice.getVersion()
+        );
+    }
+
+    /**
+     * Expires open invoices after the short TTL and final ones after the long one.
+     */
+    private static final class StatusExpiry implements Expiry<InvoiceId, Invoice> {
+
+        private final long openTtlNanos;
+        private final long finalTtlNanos;
+
+        StatusExpiry(long openTtlNanos, long finalTtlNanos) {
+            this.openTtlNanos = openTtlNanos;
+            this.finalTtlNanos = finalTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(InvoiceId key, Invoice invoice, long currentTime) {
+            return FINAL_STATUSES.contains(invoice.getStatus()) ? finalTtlNanos : openTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(InvoiceId key, Invoice invoice, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, invoice, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(InvoiceId key, Invoice invoice, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.payme.adapters.dedupe;
+
+import com.payme.config.WebhookDedupeConfig;
+import com.payme.domain.ProviderName;
+import com.payme.ports.Clock;
+import com.payme.ports.WebhookDedupeFilter;
+import com.payme.ports.WebhookEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloom filter front for webhook deduplication.
+ *
+ * The filter is built from the keys of events received within the configured
+ * window, at startup and then on every rebuild interval. Until the first build
+ * completes every event is reported as definitely new, which is safe because
+ * the insert-on-conflict claim remains the authoritative duplicate check.
+ *
+ * Each event is stored as up to two keys, its payload hash and its provider
+ * event ID, and a lookup probes both. The filter is therefore sized for two
+ * keys per expected event at half the configured false positive rate, which
+ * keeps the rate per lookup within the configured one.
+ */
+@Component
+public class BloomWebhookDedupeFilter implements WebhookDedupeFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(BloomWebhookDedupeFilter.class);
+
+    // Payload hash and provider event ID
+    private static final int KEYS_PER_EVENT = 2;
+
+    private final WebhookEventRepository webhookEventRepository;
+    private final WebhookDedupeConfig config;
+    private final Clock clock;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter next;
+    private final AtomicLong keyCount = new AtomicLong();
+
+    private final Counter definitelyNewCounter;
+    private final Counter possibleHitCounter;
+    private final Counter falsePositiveCounter;
+
+    public BloomWebhookDedupeFilter(
+            WebhookEventRepository webhookEventRepository,
+            WebhookDedupeConfig config,
+            Clock clock,
+            MeterRegistry meterRegistry
+    ) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.config = config;
+        this.clock = clock;
+
+        this.definitelyNewCounter = Counter.builder("payme.webhooks.dedupe.lookups")
+                .tag("result", "definitely_new")
+                .register(meterRegistry);
+        this.possibleHitCounter = Counter.builder("payme.webhooks.dedupe.lookups")
+                .tag("result", "possible_hit")
+                .register(meterRegistry);
+        this.falsePositiveCounter = Counter.builder("payme.webhooks.dedupe.false_positives")
+                .register(meterRegistry);
+        Gauge.builder("payme.webhooks.dedupe.keys", keyCount, AtomicLong::get)
+                .description("Keys recorded in the current dedupe filter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean mightContain(ProviderName provider, String eventId, String hash) {
+        BloomFilter filter = current;
+        if (filter == null) {
+            return false;
+        }
+
+        boolean possibleHit = filter.mightContain(hashKey(hash))
+                || (hasEventId(eventId) && filter.mightContain(eventKey(provider, eventId)));
+
+        (possibleHit ? possibleHitCounter : definitelyNewCounter).increment();
+        return possibleHit;
+    }
+
+    /**
+     * Inside a transaction the event is only added once it commits, so a
+     * claim that is rolled back or retried leaves nothing behind.
+     */
+    @Override
+    public void record(ProviderName provider, String eventId, String hash) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordNow(provider, eventId, hash);
+                }
+            });
+        } else {
+            recordNow(provider, eventId, hash);
+        }
+    }
+
+    private void recordNow(ProviderName provider, String eventId, String hash) {
+        // Record into a filter that is being rebuilt too, so nothing is lost on swap
+        BloomFilter building = next;
+        if (building != null) {
+            put(building, provider, eventId, hash);
+        }
+        BloomFilter filter = current;
+        if (filter != null) {
+            keyCount.addAndGet(put(filter, provider, eventId, hash));
+        }
+    }
+
+    @Override
+    public void recordFalsePositive() {
+        falsePositiveCounter.increment();
+    }
+
+    /**
+     * Builds a fresh filter from recent events and swaps it in. Runs at startup
+     * and then on every rebuild interval, dropping keys that left the window.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${payme.webhooks.dedupe.rebuild-interval:PT6H}")
+    public void rebuild() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        long expectedKeys = KEYS_PER_EVENT * config.getExpectedInsertions();
+        BloomFilter building = new BloomFilter(expectedKeys, config.getFalsePositiveRate() / KEYS_PER_EVENT);
+        next = building;
+
+        AtomicLong events = new AtomicLong();
+        AtomicLong loaded = new AtomicLong();
+        try {
+            webhookEventRepository.forEachDedupeKeySince(clock.now().minus(config.getWindow()), key -> {
+                loaded.addAndGet(put(building, key.getProvider(), key.getProviderEventId(), key.getPayloadHash()));
+                events.incrementAndGet();
+            });
+        } catch (RuntimeException e) {
+            next = null;
+            log.error("Failed to rebuild webhook dedupe filter; keeping the previous one", e);
+            return;
+        }
+
+        current = building;
+        next = null;
+        keyCount.set(loaded.get());
+
+        if (loaded.get() > expectedKeys) {
+            log.warn("Webhook dedupe filter holds {} keys, above the {} it is sized for; false positives will rise",
+                    loaded.get(), expectedKeys);
+        }
+        log.info("Webhook dedupe filter rebuilt with {} events, {} keys ({} bits, {} hashes) in {} ms",
+                events.get(), loaded.get(), building.getBitCount(), building.getHashCount(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * @return The number of keys added
+     */
+    private static int put(BloomFilter filter, ProviderName provider, String eventId, String hash) {
+        filter.put(hashKey(hash));
+        if (hasEventId(eventId)) {
+            filter.put(eventKey(provider, eventId));
+            return 2;
+        }
+        return 1;
+    }
+
+    private static boolean hasEventId(String eventId) {
+        return eventId != null && !eventId.isEmpty();
+    }
+
+    private static String hashKey(String hash) {
+        return "h:" + hash;
+    }
+
+    private static String eventKey(ProviderName provider, String eventId) {
+        return "e:" + provider.name() + ':' + eventId;
+    }
+}
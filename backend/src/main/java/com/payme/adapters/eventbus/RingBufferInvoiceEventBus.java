@@ -0,0 +1,224 @@
+package com.payme.adapters.eventbus;
+
+import com.payme.config.InvoiceEventBusConfig;
+import com.payme.config.WorkerThreads;
+import com.payme.domain.InvoiceId;
+import com.payme.ports.InvoiceEvent;
+import com.payme.ports.InvoiceEventBus;
+import com.payme.ports.InvoiceEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Invoice event bus over per-partition ring buffers.
+ *
+ * Events are partitioned by invoice, and each partition has its own ring
+ * buffer and consumer thread, so events for one invoice are handled in order
+ * while different invoices are handled in parallel. Consumers drain their
+ * buffer in batches and hand each batch to every listener. A publish waits
+ * until the consumers of the partitions it wrote to have handled everything
+ * up to its last event, which is what lets the relay delete outbox rows only
+ * once they have been delivered.
+ */
+@Component
+public class RingBufferInvoiceEventBus implements InvoiceEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(RingBufferInvoiceEventBus.class);
+
+    // Consumers are unparked when events arrive; the timeout only bounds
+    // how long a missed wakeup or a shutdown can go unnoticed
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ObjectProvider<InvoiceEventListener> listenerProvider;
+    private volatile List<InvoiceEventListener> listeners;
+    private final Partition[] partitions;
+    private final int batchSize;
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private volatile boolean running = true;
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+
+    public RingBufferInvoiceEventBus(
+            ObjectProvider<InvoiceEventListener> listenerProvider,
+            InvoiceEventBusConfig config,
+            MeterRegistry meterRegistry,
+            Environment environment
+    ) {
+        this.listenerProvider = listenerProvider;
+        this.batchSize = config.getBatchSize();
+
+        ThreadFactory threads = WorkerThreads.factory("invoice-events-", environment);
+        this.partitions = new Partition[config.getPartitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            Partition partition = new Partition(config.getBufferSize());
+            partition.consumer = threads.newThread(() -> consume(partition));
+            partitions[i] = partition;
+        }
+
+        Gauge.builder("payme.events.bus.depth", this, RingBufferInvoiceEventBus::depth)
+                .description("Invoice events published but not yet handled by every listener")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("payme.events.bus.delivered")
+                .description("Invoice events handed to the listeners")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payme.events.bus.failed")
+                .description("Listener calls that threw; their events are published again")
+                .register(meterRegistry);
+
+        for (Partition partition : partitions) {
+            partition.consumer.start();
+        }
+
+        log.info("RingBufferInvoiceEventBus initialized with {} partitions of {} events",
+                partitions.length, partitions[0].ring.capacity());
+    }
+
+    @Override
+    public boolean publish(List<InvoiceEvent> events, Duration timeout) {
+        if (events.isEmpty()) {
+            return true;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        publishLock.lock();
+        try {
+            long[] targets = new long[partitions.length];
+            long[] failuresBefore = new long[partitions.length];
+            for (int i = 0; i < partitions.length; i++) {
+                targets[i] = -1;
+                failuresBefore[i] = partitions[i].failures.get();
+            }
+
+            for (InvoiceEvent event : events) {
+                int index = partitionOf(event.getInvoiceId());
+                Partition partition = partitions[index];
+                while (!partition.ring.offer(event)) {
+                    // Full: make sure the consumer is draining, then wait for room
+                    LockSupport.unpark(partition.consumer);
+                    if (System.nanoTime() - deadline > 0) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(WAIT_PARK_NANOS);
+                }
+                targets[index] = partition.ring.offered();
+            }
+
+            for (int i = 0; i < partitions.length; i++) {
+                if (targets[i] >= 0) {
+                    LockSupport.unpark(partitions[i].consumer);
+                }
+            }
+
+            for (int i = 0; i < partitions.length; i++) {
+                if (targets[i] < 0) {
+                    continue;
+                }
+                Partition partition = partitions[i];
+                while (partition.handled.get() < targets[i]) {
+                    if (System.nanoTime() - deadline > 0) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(WAIT_PARK_NANOS);
+                }
+                if (partition.failures.get() != failuresBefore[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private void consume(Partition partition) {
+        List<InvoiceEvent> batch = new ArrayList<>(batchSize);
+        List<InvoiceEvent> view = Collections.unmodifiableList(batch);
+        while (running) {
+            int drained = partition.ring.drainTo(batch, batchSize);
+            if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            for (InvoiceEventListener listener : listeners()) {
+                try {
+                    listener.onEvents(view);
+                } catch (RuntimeException e) {
+                    partition.failures.incrementAndGet();
+                    failedCounter.increment();
+                    log.error("Invoice event listener {} failed on {} events",
+                            listener.getClass().getSimpleName(), drained, e);
+                }
+            }
+            deliveredCounter.increment(drained);
+            batch.clear();
+            partition.handled.addAndGet(drained);
+        }
+    }
+
+    /**
+     * Resolved on first delivery rather than in the constructor, so listeners
+     * may depend on beans that depend on the bus.
+     */
+    private List<InvoiceEventListener> listeners() {
+        List<InvoiceEventListener> resolved = listeners;
+        if (resolved == null) {
+            resolved = listenerProvider.orderedStream().toList();
+            listeners = resolved;
+        }
+        return resolved;
+    }
+
+    private int partitionOf(InvoiceId invoiceId) {
+        int h = invoiceId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), partitions.length);
+    }
+
+    private double depth() {
+        long depth = 0;
+        for (Partition partition : partitions) {
+            depth += partition.ring.offered() - partition.handled.get();
+        }
+        return depth;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Partition partition : partitions) {
+            LockSupport.unpark(partition.consumer);
+        }
+        for (Partition partition : partitions) {
+            partition.consumer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private static final class Partition {
+        final SpscRingBuffer<InvoiceEvent> ring;
+        // Events fully handled by every listener; trails ring.offered()
+        final AtomicLong handled = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        Thread consumer;
+
+        Partition(int bufferSize) {
+            this.ring = new SpscRingBuffer<>(bufferSize);
+        }
+    }
+}
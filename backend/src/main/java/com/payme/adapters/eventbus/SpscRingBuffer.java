@@ -0,0 +1,87 @@
+package com.payme.adapters.eventbus;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer, single-consumer ring buffer.
+ *
+ * One thread offers and one thread drains; neither takes a lock. Slots are
+ * published to the consumer by an ordered write of the tail sequence and
+ * handed back to the producer by an ordered write of the head sequence.
+ * Both sequences only grow, so their difference is the number of items held.
+ *
+ * @param <E> Item type
+ */
+final class SpscRingBuffer<E> {
+
+    private final Object[] slots;
+    private final int mask;
+
+    // Next sequence to drain; written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+    // Next sequence to offer; written by the producer only
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity Minimum number of items held; rounded up to a power of two
+     */
+    SpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Producer side.
+     *
+     * @return false if the buffer is full
+     */
+    boolean offer(E item) {
+        long t = tail.get();
+        if (t - head.get() >= slots.length) {
+            return false;
+        }
+        slots[(int) (t & mask)] = item;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side. Moves up to max items into the collection, oldest first.
+     *
+     * @return The number of items moved
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(Collection<? super E> into, int max) {
+        long h = head.get();
+        int n = (int) Math.min(tail.get() - h, max);
+        for (int i = 0; i < n; i++) {
+            int slot = (int) ((h + i) & mask);
+            into.add((E) slots[slot]);
+            slots[slot] = null;
+        }
+        if (n > 0) {
+            head.lazySet(h + n);
+        }
+        return n;
+    }
+
+    /**
+     * @return How many items have ever been offered; the sequence the next item gets
+     */
+    long offered() {
+        return tail.get();
+    }
+
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -1,8 +1,14 @@
 package com.payme.adapters.hashing;
 
 import com.payme.ports.HashService;
+import com.payme.ports.HashedBytes;
+import com.payme.ports.PayloadTooLargeException;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -10,26 +16,72 @@ import java.security.NoSuchAlgorithmException;
 @Component
 public class SHA256HashService implements HashService {
 
-    @Override
-    public String sha256(String input) {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    // MessageDigest is not thread-safe; one instance per thread avoids a provider lookup per call
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            return bytesToHex(hash);
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("SHA-256 algorithm not available", e);
         }
+    });
+
+    @Override
+    public String sha256(String input) {
+        return sha256(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String sha256(byte[] input) {
+        MessageDigest digest = digest();
+        return toHex(digest.digest(input));
+    }
+
+    @Override
+    public String sha256(ByteBuffer input) {
+        MessageDigest digest = digest();
+        digest.update(input);
+        return toHex(digest.digest());
     }
 
-    private String bytesToHex(byte[] hash) {
-        StringBuilder hexString = new StringBuilder(2 * hash.length);
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) {
-                hexString.append('0');
+    @Override
+    public HashedBytes sha256(InputStream input, int sizeHint, int maxBytes) throws IOException {
+        // The hint comes from the sender, so it only sizes the buffer within the cap
+        boolean trustedHint = sizeHint > 0 && sizeHint <= maxBytes;
+        MessageDigest digest = digest();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(
+                trustedHint ? sizeHint : Math.min(READ_BUFFER_SIZE, Math.max(maxBytes, 1)));
+        byte[] buffer = new byte[trustedHint ? Math.min(sizeHint, READ_BUFFER_SIZE) : READ_BUFFER_SIZE];
+
+        long total = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new PayloadTooLargeException("Body exceeds " + maxBytes + " bytes");
             }
-            hexString.append(hex);
+            digest.update(buffer, 0, read);
+            body.write(buffer, 0, read);
+        }
+
+        return new HashedBytes(body.toByteArray(), toHex(digest.digest()));
+    }
+
+    private static MessageDigest digest() {
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        return digest;
+    }
+
+    private static String toHex(byte[] hash) {
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            int b = hash[i] & 0xff;
+            hex[i * 2] = HEX[b >>> 4];
+            hex[i * 2 + 1] = HEX[b & 0x0f];
         }
-        return hexString.toString();
+        return new String(hex);
     }
 }
@@ -0,0 +1,35 @@
+package com.payme.adapters.limiter;
+
+/**
+ * A constant limit.
+ */
+public class FixedLimit implements LimitAlgorithm {
+
+    private final int limit;
+
+    public FixedLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        this.limit = limit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+    }
+
+    @Override
+    public double getRttMillis() {
+        return Double.NaN;
+    }
+
+    @Override
+    public double getNoLoadRttMillis() {
+        return Double.NaN;
+    }
+}
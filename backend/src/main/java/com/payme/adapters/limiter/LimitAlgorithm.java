@@ -0,0 +1,28 @@
+package com.payme.adapters.limiter;
+
+/**
+ * Decides how many calls a {@link QueueingConcurrencyLimiter} lets run at once.
+ */
+public interface LimitAlgorithm {
+
+    int getLimit();
+
+    /**
+     * Feeds back one completed call.
+     *
+     * @param rttNanos Time from admission to release
+     * @param inFlight Calls in flight when this call was admitted, including itself
+     * @param dropped  Whether the call failed because of overload
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+
+    /**
+     * @return Recent average latency in milliseconds, or NaN if not tracked
+     */
+    double getRttMillis();
+
+    /**
+     * @return Estimated latency without queueing in milliseconds, or NaN if not tracked
+     */
+    double getNoLoadRttMillis();
+}
@@ -0,0 +1,188 @@
+package com.payme.adapters.limiter;
+
+import com.payme.ports.ConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limiter with a bounded wait queue.
+ *
+ * Calls beyond the current limit wait for a slot for at most maxQueueWait,
+ * and only maxQueued of them may wait at once; the rest are shed immediately.
+ * The limit itself comes from a {@link LimitAlgorithm}, which is fed the
+ * latency of every completed call.
+ */
+public class QueueingConcurrencyLimiter implements ConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueueingConcurrencyLimiter.class);
+
+    private final LimitAlgorithm algorithm;
+    private final int maxQueued;
+    private final long maxQueueWaitNanos;
+    private final Duration retryAfter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private int inFlight;
+    private int queued;
+
+    private final Counter queueFullCounter;
+    private final Counter queueTimeoutCounter;
+    private final Counter droppedCounter;
+
+    public QueueingConcurrencyLimiter(
+            String name,
+            LimitAlgorithm algorithm,
+            int maxQueued,
+            Duration maxQueueWait,
+            Duration retryAfter,
+            MeterRegistry meterRegistry
+    ) {
+        this.algorithm = algorithm;
+        this.maxQueued = maxQueued;
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.retryAfter = retryAfter;
+
+        Gauge.builder("payme.limiter.limit", algorithm, LimitAlgorithm::getLimit)
+                .tag("name", name)
+                .description("Calls currently allowed in flight")
+                .register(meterRegistry);
+        Gauge.builder("payme.limiter.in_flight", this, QueueingConcurrencyLimiter::getInFlight)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("payme.limiter.queued", this, QueueingConcurrencyLimiter::getQueued)
+                .tag("name", name)
+                .description("Calls waiting for a slot")
+                .register(meterRegistry);
+        Gauge.builder("payme.limiter.rtt", algorithm, LimitAlgorithm::getRttMillis)
+                .tag("name", name)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("payme.limiter.rtt.no_load", algorithm, LimitAlgorithm::getNoLoadRttMillis)
+                .tag("name", name)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.queueFullCounter = Counter.builder("payme.limiter.rejected")
+                .tag("name", name)
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.queueTimeoutCounter = Counter.builder("payme.limiter.rejected")
+                .tag("name", name)
+                .tag("reason", "queue_timeout")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("payme.limiter.dropped")
+                .tag("name", name)
+                .description("Admitted calls that failed because of overload")
+                .register(meterRegistry);
+
+        log.info("Concurrency limiter '{}' initialized with {} (limit {}, queue {})",
+                name, algorithm.getClass().getSimpleName(), algorithm.getLimit(), maxQueued);
+    }
+
+    @Override
+    public Optional<Permit> tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < algorithm.getLimit()) {
+                return Optional.of(grant());
+            }
+            if (queued >= maxQueued) {
+                queueFullCounter.increment();
+                return Optional.empty();
+            }
+
+            queued++;
+            try {
+                long remaining = maxQueueWaitNanos;
+                while (inFlight >= algorithm.getLimit()) {
+                    if (remaining <= 0) {
+                        queueTimeoutCounter.increment();
+                        return Optional.empty();
+                    }
+                    remaining = slotFreed.awaitNanos(remaining);
+                }
+                return Optional.of(grant());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queueTimeoutCounter.increment();
+                return Optional.empty();
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getLimit() {
+        return algorithm.getLimit();
+    }
+
+    @Override
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    private LimiterPermit grant() {
+        inFlight++;
+        return new LimiterPermit(System.nanoTime(), inFlight);
+    }
+
+    private void release(LimiterPermit permit) {
+        long rtt = System.nanoTime() - permit.startedAt;
+        if (permit.dropped) {
+            droppedCounter.increment();
+        }
+        algorithm.onSample(rtt, permit.inFlightAtStart, permit.dropped);
+
+        lock.lock();
+        try {
+            inFlight--;
+            slotFreed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class LimiterPermit implements Permit {
+        private final long startedAt;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean dropped;
+
+        LimiterPermit(long startedAt, int inFlightAtStart) {
+            this.startedAt = startedAt;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        @Override
+        public void markDropped() {
+            dropped = true;
+        }
+
+        @Override
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                QueueingConcurrencyLimiter.this.release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.payme.adapters.limiter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adaptive limit in the style of TCP Vegas.
+ *
+ * The lowest latency seen recently stands in for the no-load round trip. From
+ * it and each sample's latency the number of calls queueing behind the
+ * database is estimated as limit * (1 - noLoadRtt / rtt). While that queue is
+ * small the limit grows, once it passes a few calls the limit shrinks, so
+ * concurrency settles just past the point where adding calls stops adding
+ * throughput. The no-load estimate is reset every few hundred samples so a
+ * database that has become slower (or faster) for good is re-learned, and
+ * overload failures cut the limit multiplicatively.
+ */
+public class VegasLimit implements LimitAlgorithm {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int PROBE_MULTIPLIER = 30;
+    private static final double RTT_SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private volatile int currentLimit;
+    private volatile double noLoadRttNanos;
+    private volatile double rttNanos = Double.NaN;
+    private long samplesUntilProbe;
+
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Limit bounds must satisfy 0 < min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.currentLimit = (int) limit;
+        scheduleProbe();
+    }
+
+    @Override
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    @Override
+    public synchronized void onSample(long sampleNanos, int inFlight, boolean dropped) {
+        rttNanos = Double.isNaN(rttNanos) ? sampleNanos : rttNanos + RTT_SMOOTHING * (sampleNanos - rttNanos);
+
+        if (--samplesUntilProbe <= 0) {
+            noLoadRttNanos = sampleNanos;
+            scheduleProbe();
+            return;
+        }
+        if (noLoadRttNanos == 0 || sampleNanos < noLoadRttNanos) {
+            noLoadRttNanos = sampleNanos;
+            return;
+        }
+
+        if (dropped) {
+            update(limit * BACKOFF_RATIO);
+            return;
+        }
+
+        // Too little load to learn anything about the limit
+        if (inFlight * 2 < limit) {
+            return;
+        }
+
+        double log = Math.max(1, Math.log10(limit));
+        double queued = Math.ceil(limit * (1 - noLoadRttNanos / sampleNanos));
+        if (queued <= 3 * log) {
+            update(limit + log);
+        } else if (queued >= 6 * log) {
+            update(limit - log);
+        }
+    }
+
+    @Override
+    public double getRttMillis() {
+        return rttNanos / 1_000_000.0;
+    }
+
+    @Override
+    public double getNoLoadRttMillis() {
+        return noLoadRttNanos / 1_000_000.0;
+    }
+
+    private void update(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        currentLimit = (int) limit;
+    }
+
+    private void scheduleProbe() {
+        long interval = (long) (PROBE_MULTIPLIER * limit);
+        samplesUntilProbe = interval + ThreadLocalRandom.current().nextLong(Math.max(1, interval / 2));
+    }
+}
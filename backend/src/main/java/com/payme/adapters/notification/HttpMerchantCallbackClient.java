@@ -0,0 +1,146 @@
+package com.payme.adapters.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payme.config.MerchantNotificationConfig;
+import com.payme.config.WorkerThreads;
+import com.payme.domain.InvoiceStatus;
+import com.payme.ports.Clock;
+import com.payme.ports.MerchantCallbackClient;
+import com.payme.ports.MerchantNotification;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Posts merchant notifications as JSON with the JDK HTTP client.
+ *
+ * One client is shared for all merchants, so connections are pooled and
+ * kept alive per endpoint between notifications. Requests are asynchronous
+ * and bounded by the request timeout, so a slow merchant only ties up its
+ * own in-flight slots, never a thread.
+ *
+ * Every callback is signed with the merchant's secret, so merchants can tell
+ * it came from us: X-Payme-Signature carries "v1=" and the hex HMAC-SHA256 of
+ * the X-Payme-Timestamp value (epoch seconds), a '.', and the raw body. The
+ * timestamp lets merchants reject old callbacks replayed at them.
+ */
+@Component
+public class HttpMerchantCallbackClient implements MerchantCallbackClient {
+
+    static final String SEQUENCE_HEADER = "X-Payme-Event-Sequence";
+    static final String TIMESTAMP_HEADER = "X-Payme-Timestamp";
+    static final String SIGNATURE_HEADER = "X-Payme-Signature";
+    static final String SIGNATURE_SCHEME = "v1=";
+    static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Map<String, String> signingSecrets;
+    private final Duration requestTimeout;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    public HttpMerchantCallbackClient(
+            ObjectMapper objectMapper,
+            Clock clock,
+            MerchantNotificationConfig config,
+            Environment environment
+    ) {
+        for (String merchantId : config.getEndpoints().keySet()) {
+            String secret = config.getSigningSecrets().get(merchantId);
+            if (secret == null || secret.isBlank()) {
+                throw new IllegalStateException("No signing secret configured for merchant " + merchantId
+                        + "; set payme.notifications.signing-secrets for every merchant with an endpoint");
+            }
+        }
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.signingSecrets = Map.copyOf(config.getSigningSecrets());
+        this.requestTimeout = config.getRequestTimeout();
+        this.executor = Executors.newFixedThreadPool(
+                config.getWorkers(), WorkerThreads.factory("merchant-callbacks-", environment));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<Integer> send(URI endpoint, MerchantNotification notification) {
+        String secret = signingSecrets.get(notification.getMerchantId().getValue());
+        if (secret == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "No signing secret configured for merchant " + notification.getMerchantId().getValue()));
+        }
+
+        byte[] body;
+        String timestamp = Long.toString(clock.now().getEpochSecond());
+        String signature;
+        try {
+            body = objectMapper.writeValueAsBytes(new CallbackBody(
+                    notification.getInvoiceId().getValue(),
+                    notification.getMerchantId().getValue(),
+                    notification.getStatus(),
+                    notification.getOccurredAt(),
+                    notification.getEventSequence()));
+            signature = sign(secret, timestamp, body);
+        } catch (JsonProcessingException | GeneralSecurityException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(requestTimeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(SEQUENCE_HEADER, Long.toString(notification.getEventSequence()))
+                .header(TIMESTAMP_HEADER, timestamp)
+                .header(SIGNATURE_HEADER, SIGNATURE_SCHEME + signature)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    /**
+     * @return The hex HMAC-SHA256 of timestamp + "." + body under the secret
+     */
+    static String sign(String secret, String timestamp, byte[] body) throws GeneralSecurityException {
+        // Mac instances are not thread-safe, and cheap next to the request
+        Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM));
+        mac.update(timestamp.getBytes(StandardCharsets.US_ASCII));
+        mac.update((byte) '.');
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The callback payload. The sequence orders notifications for the same
+     * invoice, since a retried older one can arrive after a newer one.
+     */
+    record CallbackBody(String invoiceId, String merchantId, InvoiceStatus status, Instant occurredAt, long sequence) {}
+}
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -16,7 +17,7 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class InvoiceJpaEntity {
+public class InvoiceJpaEntity implements Persistable<String> {
 
     @Id
     @Column(name = "id", nullable = false)
@@ -48,6 +49,30 @@ public class InvoiceJpaEntity {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Set on entities built for an insert, so save() persists without a SELECT
+    @Transient
+    private transient boolean newEntity;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    public InvoiceJpaEntity markNew() {
+        this.newEntity = true;
+        return this;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
     public Invoice toDomain() {
         return new Invoice(
                 new InvoiceId(this.id),
@@ -57,7 +82,8 @@ public class InvoiceJpaEntity {
                 this.status,
                 this.expiresAt,
                 this.createdAt,
-                this.updatedAt
+                this.updatedAt,
+                this.version
         );
     }
 
@@ -72,6 +98,7 @@ public class InvoiceJpaEntity {
                 .expiresAt(invoice.getExpiresAt())
                 .createdAt(invoice.getCreatedAt())
                 .updatedAt(invoice.getUpdatedAt())
+                .version(invoice.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,113 @@
+package com.payme.adapters.persistence.jpa;
+
+import com.payme.domain.Invoice;
+import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import com.payme.domain.PaymentAttempt;
+import com.payme.ports.InvoiceEvent;
+import com.payme.ports.InvoiceEventType;
+import com.payme.ports.InvoiceOutbox;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The invoice_outbox table. The repository adapters append to it through the
+ * package-private methods, on the connection of the caller's transaction.
+ */
+@Component
+public class InvoiceOutboxAdapter implements InvoiceOutbox {
+
+    // Arbitrary, but fixed: every node must contend for the same lock
+    private static final long RELAY_LOCK_KEY = 0x7061796d652d6f62L;
+
+    private static final String APPEND = """
+            insert into invoice_outbox (event_type, invoice_id, payment_attempt_id, status, occurred_at)
+            values (:eventType, :invoiceId, :paymentAttemptId, :status, :occurredAt)
+            """;
+
+    private static final String TRY_LOCK_RELAY = "select pg_try_advisory_xact_lock(:key)";
+
+    private static final String FIND_OLDEST = """
+            select id, event_type, invoice_id, payment_attempt_id, status, occurred_at
+            from invoice_outbox
+            order by id
+            limit :limit
+            """;
+
+    private static final String DELETE = "delete from invoice_outbox where id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public InvoiceOutboxAdapter(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    void appendInvoiceStatus(InvoiceId invoiceId, InvoiceStatus status, Instant occurredAt) {
+        jdbcTemplate.update(APPEND, new MapSqlParameterSource()
+                .addValue("eventType", InvoiceEventType.INVOICE_STATUS_CHANGED.name())
+                .addValue("invoiceId", invoiceId.getValue())
+                .addValue("paymentAttemptId", null)
+                .addValue("status", status.name())
+                .addValue("occurredAt", utc(occurredAt)));
+    }
+
+    void appendInvoiceStatuses(List<Invoice> invoices) {
+        SqlParameterSource[] batch = invoices.stream()
+                .map(invoice -> new MapSqlParameterSource()
+                        .addValue("eventType", InvoiceEventType.INVOICE_STATUS_CHANGED.name())
+                        .addValue("invoiceId", invoice.getInvoiceId().getValue())
+                        .addValue("paymentAttemptId", null)
+                        .addValue("status", invoice.getStatus().name())
+                        .addValue("occurredAt", utc(invoice.getUpdatedAt())))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(APPEND, batch);
+    }
+
+    void appendPaymentAttemptStatus(PaymentAttempt attempt) {
+        jdbcTemplate.update(APPEND, new MapSqlParameterSource()
+                .addValue("eventType", InvoiceEventType.PAYMENT_ATTEMPT_STATUS_CHANGED.name())
+                .addValue("invoiceId", attempt.getInvoiceId().getValue())
+                .addValue("paymentAttemptId", attempt.getAttemptId().getValue())
+                .addValue("status", attempt.getStatus().name())
+                .addValue("occurredAt", utc(attempt.getUpdatedAt())));
+    }
+
+    @Override
+    public boolean tryLockRelay() {
+        Boolean locked = jdbcTemplate.queryForObject(
+                TRY_LOCK_RELAY, Map.of("key", RELAY_LOCK_KEY), Boolean.class);
+        return Boolean.TRUE.equals(locked);
+    }
+
+    @Override
+    public List<InvoiceEvent> findOldest(int limit) {
+        return jdbcTemplate.query(FIND_OLDEST, Map.of("limit", limit), (rs, rowNum) -> new InvoiceEvent(
+                rs.getLong("id"),
+                InvoiceEventType.valueOf(rs.getString("event_type")),
+                new InvoiceId(rs.getString("invoice_id")),
+                rs.getString("payment_attempt_id"),
+                rs.getString("status"),
+                rs.getObject("occurred_at", OffsetDateTime.class).toInstant()));
+    }
+
+    @Override
+    public void delete(List<InvoiceEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<Long> ids = events.stream().map(InvoiceEvent::getSequence).toList();
+        jdbcTemplate.update(DELETE, Map.of("ids", ids));
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -1,26 +1,272 @@
 package com.payme.adapters.persistence.jpa;
 
+import com.payme.domain.Currency;
 import com.payme.domain.Invoice;
 import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import com.payme.domain.MerchantId;
+import com.payme.domain.Money;
+import com.payme.ports.InvoiceCursor;
+import com.payme.ports.InvoiceExpiryBacklog;
+import com.payme.ports.InvoiceListQuery;
 import com.payme.ports.InvoiceRepository;
+import com.payme.ports.OpenInvoiceExpiry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Component
 public class InvoiceRepositoryAdapter implements InvoiceRepository {
 
+    private static final String INSERT = """
+            insert into invoices (id, merchant_id, amount, currency, description, status,
+                                  expires_at, created_at, updated_at, version)
+            values (:id, :merchantId, :amount, :currency, :description, :status,
+                    :expiresAt, :createdAt, :updatedAt, :version)
+            """;
+
+    // Status literals are inlined so the planner can match the partial
+    // index on open invoices (idx_invoices_open_expires_at)
+    private static final String DUE_FOR_EXPIRY = """
+            from invoices
+            where status in ('CREATED', 'PENDING')
+              and expires_at < :createdCutoff
+              and (status = 'CREATED' or expires_at < :pendingCutoff)
+            order by expires_at
+            limit :limit
+            """;
+
+    // Records the outbox events in the same statement, so a batch costs one round trip
+    private static final String EXPIRE_DUE = """
+            with expired as (
+                update invoices i
+                set status = 'EXPIRED', updated_at = :updatedAt, version = i.version + 1
+                from (select id
+            """ + DUE_FOR_EXPIRY + """
+                      for update skip locked) due
+                where i.id = due.id
+                returning i.id
+            ), recorded as (
+                insert into invoice_outbox (event_type, invoice_id, status, occurred_at)
+                select 'INVOICE_STATUS_CHANGED', id, 'EXPIRED', :updatedAt
+                from expired
+            )
+            select id from expired
+            """;
+
+    private static final String MEASURE_EXPIRY_BACKLOG = """
+            select count(*) as due_count, min(expires_at) as oldest_expires_at
+            from (select expires_at
+            """ + DUE_FOR_EXPIRY + """
+                 ) due
+            """;
+
+    private static final String FIND_OPEN_EXPIRIES = """
+            select id, expires_at
+            from invoices
+            where status in ('CREATED', 'PENDING')
+              and (expires_at, id) > (:afterExpiresAt, :afterId)
+            order by expires_at, id
+            limit :limit
+            """;
+
+    // Row comparison against the cursor lets the scan start at the cursor in
+    // idx_invoices_merchant_created / idx_invoices_merchant_status_created
+    // instead of reading and discarding the pages before it
+    private static final String FIND_BY_MERCHANT = """
+            select id, merchant_id, amount, currency, description, status,
+                   expires_at, created_at, updated_at, version
+            from invoices
+            where merchant_id = :merchantId
+              and (created_at, id) < (:beforeCreatedAt, :beforeId)
+            order by created_at desc, id desc
+            limit :limit
+            """;
+
+    private static final String FIND_BY_MERCHANT_AND_STATUS = """
+            select id, merchant_id, amount, currency, description, status,
+                   expires_at, created_at, updated_at, version
+            from invoices
+            where merchant_id = :merchantId
+              and status = :status
+              and (created_at, id) < (:beforeCreatedAt, :beforeId)
+            order by created_at desc, id desc
+            limit :limit
+            """;
+
+    // Upper bound of the listing when neither a cursor nor createdBefore is given
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T23:59:59Z");
+
     private final JpaInvoiceRepository jpaRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final InvoiceOutboxAdapter outbox;
 
-    public InvoiceRepositoryAdapter(JpaInvoiceRepository jpaRepository) {
+    public InvoiceRepositoryAdapter(
+            JpaInvoiceRepository jpaRepository,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            InvoiceOutboxAdapter outbox
+    ) {
         this.jpaRepository = jpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.outbox = outbox;
+    }
+
+    @Override
+    public Invoice insert(Invoice invoice) {
+        // Marked new so Spring Data persists instead of merging, which would SELECT first
+        InvoiceJpaEntity entity = InvoiceJpaEntity.fromDomain(invoice).markNew();
+        jpaRepository.save(entity);
+        outbox.appendInvoiceStatus(invoice.getInvoiceId(), invoice.getStatus(), invoice.getUpdatedAt());
+        return invoice;
+    }
+
+    @Override
+    public void insertAll(List<Invoice> invoices) {
+        if (invoices.isEmpty()) {
+            return;
+        }
+        // Plain JDBC rather than saveAll: one batch with no persistence context
+        // to flush, which the driver rewrites into multi-row INSERTs
+        // (reWriteBatchedInserts in application.yml)
+        SqlParameterSource[] batch = invoices.stream()
+                .map(invoice -> new MapSqlParameterSource()
+                        .addValue("id", invoice.getInvoiceId().getValue())
+                        .addValue("merchantId", invoice.getMerchantId().getValue())
+                        .addValue("amount", invoice.getMoney().getAmount())
+                        .addValue("currency", invoice.getMoney().getCurrency().name())
+                        .addValue("description", invoice.getDescription())
+                        .addValue("status", invoice.getStatus().name())
+                        .addValue("expiresAt", utc(invoice.getExpiresAt()))
+                        .addValue("createdAt", utc(invoice.getCreatedAt()))
+                        .addValue("updatedAt", utc(invoice.getUpdatedAt()))
+                        .addValue("version", invoice.getVersion()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT, batch);
+        outbox.appendInvoiceStatuses(invoices);
     }
 
     @Override
-    public Invoice save(Invoice invoice) {
+    public Invoice update(Invoice invoice) {
+        int updated = jpaRepository.updateStatus(
+                invoice.getInvoiceId().getValue(),
+                invoice.getVersion(),
+                invoice.getStatus(),
+                invoice.getUpdatedAt()
+        );
+        if (updated != 1) {
+            throw new OptimisticLockingFailureException(
+                    "Invoice " + invoice.getInvoiceId().getValue()
+                            + " was modified concurrently (expected version " + invoice.getVersion() + ")");
+        }
+        outbox.appendInvoiceStatus(invoice.getInvoiceId(), invoice.getStatus(), invoice.getUpdatedAt());
         InvoiceJpaEntity entity = InvoiceJpaEntity.fromDomain(invoice);
-        InvoiceJpaEntity saved = jpaRepository.save(entity);
-        return saved.toDomain();
+        entity.setVersion(invoice.getVersion() + 1);
+        return entity.toDomain();
+    }
+
+    @Override
+    public boolean compareAndSetStatus(
+            InvoiceId invoiceId,
+            Set<InvoiceStatus> expectedStatuses,
+            InvoiceStatus newStatus,
+            Instant updatedAt
+    ) {
+        if (expectedStatuses.isEmpty()) {
+            return false;
+        }
+        boolean applied = jpaRepository.compareAndSetStatus(
+                invoiceId.getValue(), expectedStatuses, newStatus, updatedAt) == 1;
+        if (applied) {
+            outbox.appendInvoiceStatus(invoiceId, newStatus, updatedAt);
+        }
+        return applied;
+    }
+
+    @Override
+    public List<InvoiceId> expireDue(Instant createdCutoff, Instant pendingCutoff, Instant updatedAt, int limit) {
+        MapSqlParameterSource params = dueParameters(createdCutoff, pendingCutoff, limit)
+                .addValue("updatedAt", utc(updatedAt));
+        return jdbcTemplate.query(EXPIRE_DUE, params, (rs, rowNum) -> new InvoiceId(rs.getString("id")));
+    }
+
+    @Override
+    public InvoiceExpiryBacklog measureExpiryBacklog(Instant createdCutoff, Instant pendingCutoff, int sampleLimit) {
+        return jdbcTemplate.queryForObject(
+                MEASURE_EXPIRY_BACKLOG,
+                dueParameters(createdCutoff, pendingCutoff, sampleLimit),
+                (rs, rowNum) -> {
+                    OffsetDateTime oldest = rs.getObject("oldest_expires_at", OffsetDateTime.class);
+                    return new InvoiceExpiryBacklog(rs.getLong("due_count"), oldest == null ? null : oldest.toInstant());
+                });
+    }
+
+    @Override
+    public List<OpenInvoiceExpiry> findOpenExpiries(OpenInvoiceExpiry after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("afterExpiresAt", utc(after == null ? Instant.EPOCH : after.getExpiresAt()))
+                .addValue("afterId", after == null ? "" : after.getInvoiceId().getValue())
+                .addValue("limit", limit);
+        return jdbcTemplate.query(FIND_OPEN_EXPIRIES, params, (rs, rowNum) -> new OpenInvoiceExpiry(
+                new InvoiceId(rs.getString("id")),
+                rs.getObject("expires_at", OffsetDateTime.class).toInstant()));
+    }
+
+    @Override
+    public void findByMerchant(InvoiceListQuery query, int limit, Consumer<Invoice> consumer) {
+        // Start below the cursor or createdBefore, whichever is lower; an empty
+        // ID sorts before every real one, so (createdBefore, '') excludes createdBefore itself
+        Instant beforeCreatedAt = query.getCreatedBefore() != null ? query.getCreatedBefore() : END_OF_TIME;
+        String beforeId = "";
+        InvoiceCursor after = query.getAfter();
+        if (after != null && after.getCreatedAt().isBefore(beforeCreatedAt)) {
+            beforeCreatedAt = after.getCreatedAt();
+            beforeId = after.getInvoiceId().getValue();
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("merchantId", query.getMerchantId().getValue())
+                .addValue("beforeCreatedAt", utc(beforeCreatedAt))
+                .addValue("beforeId", beforeId)
+                .addValue("limit", limit);
+        String sql = FIND_BY_MERCHANT;
+        if (query.getStatus() != null) {
+            sql = FIND_BY_MERCHANT_AND_STATUS;
+            params.addValue("status", query.getStatus().name());
+        }
+
+        jdbcTemplate.query(sql, params, rs -> {
+            consumer.accept(new Invoice(
+                    new InvoiceId(rs.getString("id")),
+                    new MerchantId(rs.getString("merchant_id")),
+                    new Money(rs.getBigDecimal("amount"), Currency.valueOf(rs.getString("currency"))),
+                    rs.getString("description"),
+                    InvoiceStatus.valueOf(rs.getString("status")),
+                    rs.getObject("expires_at", OffsetDateTime.class).toInstant(),
+                    rs.getObject("created_at", OffsetDateTime.class).toInstant(),
+                    rs.getObject("updated_at", OffsetDateTime.class).toInstant(),
+                    rs.getLong("version")));
+        });
+    }
+
+    private static MapSqlParameterSource dueParameters(Instant createdCutoff, Instant pendingCutoff, int limit) {
+        return new MapSqlParameterSource()
+                .addValue("createdCutoff", utc(createdCutoff))
+                .addValue("pendingCutoff", utc(pendingCutoff))
+                .addValue("limit", limit);
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
     }
 
     @Override
@@ -1,8 +1,53 @@
 package com.payme.adapters.persistence.jpa;
 
+import com.payme.domain.InvoiceStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
 
 @Repository
 public interface JpaInvoiceRepository extends JpaRepository<InvoiceJpaEntity, String> {
+
+    /**
+     * Conditional status update. Flushes pending writes first and clears the
+     * persistence context afterwards, so a re-read after a failed transition
+     * sees the row's current state rather than a cached copy.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update InvoiceJpaEntity i
+            set i.status = :status, i.updatedAt = :updatedAt, i.version = i.version + 1
+            where i.id = :id and i.status in :expectedStatuses
+            """)
+    int compareAndSetStatus(
+            @Param("id") String id,
+            @Param("expectedStatuses") Collection<InvoiceStatus> expectedStatuses,
+            @Param("status") InvoiceStatus status,
+            @Param("updatedAt") Instant updatedAt
+    );
+
+    /**
+     * Versioned status update: applies only if the row still has the version
+     * the caller loaded, and advances it.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update InvoiceJpaEntity i
+            set i.status = :status, i.updatedAt = :updatedAt, i.version = i.version + 1
+            where i.id = :id and i.version = :expectedVersion
+            """)
+    int updateStatus(
+            @Param("id") String id,
+            @Param("expectedVersion") long expectedVersion,
+            @Param("status") InvoiceStatus status,
+            @Param("updatedAt") Instant updatedAt
+    );
 }
@@ -1,13 +1,40 @@
 package com.payme.adapters.persistence.jpa;
 
+import com.payme.domain.PaymentAttemptStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface JpaPaymentAttemptRepository extends JpaRepository<PaymentAttemptJpaEntity, String> {
     List<PaymentAttemptJpaEntity> findByInvoiceId(String invoiceId);
+    Optional<PaymentAttemptJpaEntity> findFirstByInvoiceIdOrderByCreatedAtDesc(String invoiceId);
     Optional<PaymentAttemptJpaEntity> findByProviderReference(String providerReference);
+
+    /**
+     * Versioned status update: applies only if the row still has the version
+     * the caller loaded, and advances it. Flushes pending writes first and
+     * clears the persistence context afterwards, so a re-read sees the row's
+     * current state rather than a cached copy.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update PaymentAttemptJpaEntity a
+            set a.status = :status, a.updatedAt = :updatedAt, a.version = a.version + 1
+            where a.attemptId = :attemptId and a.version = :expectedVersion
+            """)
+    int updateStatus(
+            @Param("attemptId") String attemptId,
+            @Param("expectedVersion") long expectedVersion,
+            @Param("status") PaymentAttemptStatus status,
+            @Param("updatedAt") Instant updatedAt
+    );
 }
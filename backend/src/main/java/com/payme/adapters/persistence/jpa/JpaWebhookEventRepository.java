@@ -1,10 +1,23 @@
 package com.payme.adapters.persistence.jpa;
 
 import com.payme.domain.ProviderName;
+import com.payme.domain.WebhookProcessingStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface JpaWebhookEventRepository extends JpaRepository<WebhookEventJpaEntity, String> {
@@ -16,4 +29,73 @@ public interface JpaWebhookEventRepository extends JpaRepository<WebhookEventJpa
     boolean existsByProviderAndProviderEventId(ProviderName provider, String providerEventId);
 
     boolean existsByPayloadHash(String payloadHash);
+
+    /**
+     * Inserts the event unless it conflicts with uk_webhook_provider_event_id or
+     * uk_webhook_payload_hash. Returns the number of rows inserted (0 or 1).
+     */
+    @Modifying
+    @Query(value = """
+            insert into webhook_events
+                (id, provider, provider_event_id, payload_hash, received_at, processed_at, processing_status, error, raw_payload)
+            values
+                (:id, :provider, :providerEventId, :payloadHash, :receivedAt, null, :processingStatus, null, :rawPayload)
+            on conflict do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(
+            @Param("id") String id,
+            @Param("provider") String provider,
+            @Param("providerEventId") String providerEventId,
+            @Param("payloadHash") String payloadHash,
+            @Param("receivedAt") Instant receivedAt,
+            @Param("processingStatus") String processingStatus,
+            @Param("rawPayload") String rawPayload
+    );
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update WebhookEventJpaEntity w
+            set w.processedAt = :processedAt, w.processingStatus = :processingStatus, w.error = :error,
+                w.attempts = :attempts, w.nextAttemptAt = :nextAttemptAt
+            where w.id = :id
+            """)
+    int updateOutcome(
+            @Param("id") String id,
+            @Param("processedAt") Instant processedAt,
+            @Param("processingStatus") WebhookProcessingStatus processingStatus,
+            @Param("error") String error,
+            @Param("attempts") int attempts,
+            @Param("nextAttemptAt") Instant nextAttemptAt
+    );
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from WebhookEventJpaEntity w where w.id = :id")
+    Optional<WebhookEventJpaEntity> findByIdForUpdate(@Param("id") String id);
+
+    @Query("""
+            select w.id from WebhookEventJpaEntity w
+            where w.processingStatus = com.payme.domain.WebhookProcessingStatus.RECEIVED
+              and (w.nextAttemptAt is null or w.nextAttemptAt <= :now)
+            order by w.receivedAt
+            """)
+    List<String> findDueInboxIds(@Param("now") Instant now, Pageable pageable);
+
+    long countByProcessingStatus(WebhookProcessingStatus processingStatus);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("""
+            select w.provider as provider, w.providerEventId as providerEventId, w.payloadHash as payloadHash
+            from WebhookEventJpaEntity w
+            where w.receivedAt >= :since
+            """)
+    Stream<DedupeKeyView> streamDedupeKeysSince(@Param("since") Instant since);
+
+    interface DedupeKeyView {
+        ProviderName getProvider();
+
+        String getProviderEventId();
+
+        String getPayloadHash();
+    }
 }
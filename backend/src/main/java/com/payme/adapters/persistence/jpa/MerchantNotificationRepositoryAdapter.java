@@ -0,0 +1,151 @@
+package com.payme.adapters.persistence.jpa;
+
+import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import com.payme.domain.MerchantId;
+import com.payme.ports.InvoiceEvent;
+import com.payme.ports.MerchantNotification;
+import com.payme.ports.MerchantNotificationRepository;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class MerchantNotificationRepositoryAdapter implements MerchantNotificationRepository {
+
+    private static final String FIND_MERCHANTS = """
+            select id, merchant_id
+            from invoices
+            where id in (:invoiceIds)
+              and merchant_id in (:merchantIds)
+            """;
+
+    // Replaces a queued notification only with a newer event, and resets its
+    // retries since the merchant has not seen this status yet
+    private static final String ENQUEUE = """
+            insert into merchant_notifications
+                (invoice_id, merchant_id, status, event_sequence, occurred_at, attempts, next_attempt_at)
+            values (:invoiceId, :merchantId, :status, :eventSequence, :occurredAt, 0, :now)
+            on conflict (invoice_id) do update
+            set status = excluded.status,
+                event_sequence = excluded.event_sequence,
+                occurred_at = excluded.occurred_at,
+                attempts = 0,
+                next_attempt_at = excluded.next_attempt_at,
+                delivered_at = null,
+                last_error = null
+            where merchant_notifications.event_sequence < excluded.event_sequence
+            """;
+
+    private static final String CLAIM_DUE = """
+            update merchant_notifications n
+            set next_attempt_at = :leaseUntil
+            from (select invoice_id
+                  from merchant_notifications
+                  where next_attempt_at <= :now
+                  order by next_attempt_at
+                  limit :limit
+                  for update skip locked) due
+            where n.invoice_id = due.invoice_id
+            returning n.invoice_id, n.merchant_id, n.status, n.event_sequence, n.occurred_at, n.attempts
+            """;
+
+    private static final String MARK_DELIVERED = """
+            update merchant_notifications
+            set attempts = attempts + 1, next_attempt_at = null, delivered_at = :deliveredAt, last_error = null
+            where invoice_id = :invoiceId and event_sequence = :eventSequence
+            """;
+
+    private static final String RESCHEDULE = """
+            update merchant_notifications
+            set attempts = :attempts, next_attempt_at = :nextAttemptAt, last_error = :error
+            where invoice_id = :invoiceId and event_sequence = :eventSequence
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public MerchantNotificationRepositoryAdapter(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void enqueue(List<InvoiceEvent> events, Collection<String> merchantIds, Instant now) {
+        if (events.isEmpty() || merchantIds.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> merchantByInvoice = new HashMap<>();
+        MapSqlParameterSource lookup = new MapSqlParameterSource()
+                .addValue("invoiceIds", events.stream().map(event -> event.getInvoiceId().getValue()).distinct().toList())
+                .addValue("merchantIds", merchantIds);
+        jdbcTemplate.query(FIND_MERCHANTS, lookup,
+                rs -> { merchantByInvoice.put(rs.getString("id"), rs.getString("merchant_id")); });
+
+        List<SqlParameterSource> rows = new ArrayList<>();
+        for (InvoiceEvent event : events) {
+            String merchantId = merchantByInvoice.get(event.getInvoiceId().getValue());
+            if (merchantId == null) {
+                continue;
+            }
+            rows.add(new MapSqlParameterSource()
+                    .addValue("invoiceId", event.getInvoiceId().getValue())
+                    .addValue("merchantId", merchantId)
+                    .addValue("status", event.getStatus())
+                    .addValue("eventSequence", event.getSequence())
+                    .addValue("occurredAt", utc(event.getOccurredAt()))
+                    .addValue("now", utc(now)));
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ENQUEUE, rows.toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    @Override
+    public List<MerchantNotification> claimDue(Instant now, Instant leaseUntil, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", utc(now))
+                .addValue("leaseUntil", utc(leaseUntil))
+                .addValue("limit", limit);
+        return jdbcTemplate.query(CLAIM_DUE, params, (rs, rowNum) -> new MerchantNotification(
+                new InvoiceId(rs.getString("invoice_id")),
+                new MerchantId(rs.getString("merchant_id")),
+                InvoiceStatus.valueOf(rs.getString("status")),
+                rs.getLong("event_sequence"),
+                rs.getObject("occurred_at", OffsetDateTime.class).toInstant(),
+                rs.getInt("attempts")));
+    }
+
+    @Override
+    public void markDelivered(MerchantNotification notification, Instant deliveredAt) {
+        jdbcTemplate.update(MARK_DELIVERED, claimed(notification)
+                .addValue("deliveredAt", utc(deliveredAt)));
+    }
+
+    @Override
+    public void reschedule(MerchantNotification notification, int attempts, Instant nextAttemptAt, String error) {
+        jdbcTemplate.update(RESCHEDULE, claimed(notification)
+                .addValue("attempts", attempts)
+                .addValue("nextAttemptAt", nextAttemptAt == null ? null : utc(nextAttemptAt))
+                .addValue("error", error));
+    }
+
+    private static MapSqlParameterSource claimed(MerchantNotification notification) {
+        return new MapSqlParameterSource()
+                .addValue("invoiceId", notification.getInvoiceId().getValue())
+                .addValue("eventSequence", notification.getEventSequence());
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
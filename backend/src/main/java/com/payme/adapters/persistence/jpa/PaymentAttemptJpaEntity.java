@@ -2,12 +2,13 @@ package com.payme.adapters.persistence.jpa;
 
 import com.payme.domain.*;
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 
 @Entity
 @Table(name = "payment_attempts")
-public class PaymentAttemptJpaEntity {
+public class PaymentAttemptJpaEntity implements Persistable<String> {
 
     @Id
     @Column(name = "attempt_id", nullable = false)
@@ -33,6 +34,14 @@ public class PaymentAttemptJpaEntity {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Set on entities built for an insert, so save() persists without a SELECT
+    @Transient
+    private transient boolean newEntity;
+
     // JPA requires default constructor
     protected PaymentAttemptJpaEntity() {
     }
@@ -44,7 +53,8 @@ public class PaymentAttemptJpaEntity {
             String providerReference,
             PaymentAttemptStatus status,
             Instant createdAt,
-            Instant updatedAt
+            Instant updatedAt,
+            long version
     ) {
         this.attemptId = attemptId;
         this.invoiceId = invoiceId;
@@ -53,6 +63,7 @@ public class PaymentAttemptJpaEntity {
         this.status = status;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.version = version;
     }
 
     public static PaymentAttemptJpaEntity fromDomain(PaymentAttempt attempt) {
@@ -63,7 +74,8 @@ public class PaymentAttemptJpaEntity {
                 attempt.getProviderReference(),
                 attempt.getStatus(),
                 attempt.getCreatedAt(),
-                attempt.getUpdatedAt()
+                attempt.getUpdatedAt(),
+                attempt.getVersion()
         );
     }
 
@@ -75,10 +87,32 @@ public class PaymentAttemptJpaEntity {
                 providerReference,
                 status,
                 createdAt,
-                updatedAt
+                updatedAt,
+                version
         );
     }
 
+    @Override
+    public String getId() {
+        return attemptId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    public PaymentAttemptJpaEntity markNew() {
+        this.newEntity = true;
+        return this;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
     // Getters and setters
     public String getAttemptId() {
         return attemptId;
@@ -135,4 +169,12 @@ public class PaymentAttemptJpaEntity {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -4,6 +4,7 @@ import com.payme.domain.InvoiceId;
 import com.payme.domain.PaymentAttempt;
 import com.payme.domain.PaymentAttemptId;
 import com.payme.ports.PaymentAttemptRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -14,16 +15,39 @@ import java.util.stream.Collectors;
 public class PaymentAttemptRepositoryAdapter implements PaymentAttemptRepository {
 
     private final JpaPaymentAttemptRepository jpaRepository;
+    private final InvoiceOutboxAdapter outbox;
 
-    public PaymentAttemptRepositoryAdapter(JpaPaymentAttemptRepository jpaRepository) {
+    public PaymentAttemptRepositoryAdapter(JpaPaymentAttemptRepository jpaRepository, InvoiceOutboxAdapter outbox) {
         this.jpaRepository = jpaRepository;
+        this.outbox = outbox;
     }
 
     @Override
-    public PaymentAttempt save(PaymentAttempt attempt) {
+    public PaymentAttempt insert(PaymentAttempt attempt) {
+        // Marked new so Spring Data persists instead of merging, which would SELECT first
+        PaymentAttemptJpaEntity entity = PaymentAttemptJpaEntity.fromDomain(attempt).markNew();
+        jpaRepository.save(entity);
+        outbox.appendPaymentAttemptStatus(attempt);
+        return attempt;
+    }
+
+    @Override
+    public PaymentAttempt update(PaymentAttempt attempt) {
+        int updated = jpaRepository.updateStatus(
+                attempt.getAttemptId().getValue(),
+                attempt.getVersion(),
+                attempt.getStatus(),
+                attempt.getUpdatedAt()
+        );
+        if (updated != 1) {
+            throw new OptimisticLockingFailureException(
+                    "Payment attempt " + attempt.getAttemptId().getValue()
+                            + " was modified concurrently (expected version " + attempt.getVersion() + ")");
+        }
+        outbox.appendPaymentAttemptStatus(attempt);
         PaymentAttemptJpaEntity entity = PaymentAttemptJpaEntity.fromDomain(attempt);
-        PaymentAttemptJpaEntity saved = jpaRepository.save(entity);
-        return saved.toDomain();
+        entity.setVersion(attempt.getVersion() + 1);
+        return entity.toDomain();
     }
 
     @Override
@@ -40,6 +64,12 @@ public class PaymentAttemptRepositoryAdapter implements PaymentAttemptRepository
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Optional<PaymentAttempt> findLatestByInvoiceId(InvoiceId invoiceId) {
+        return jpaRepository.findFirstByInvoiceIdOrderByCreatedAtDesc(invoiceId.getValue())
+                .map(PaymentAttemptJpaEntity::toDomain);
+    }
+
     @Override
     public Optional<PaymentAttempt> findByProviderReference(String providerReference) {
         return jpaRepository.findByProviderReference(providerReference)
@@ -11,10 +11,6 @@ import java.time.Instant;
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_webhook_provider_event_id", columnNames = {"provider", "provider_event_id"}),
                 @UniqueConstraint(name = "uk_webhook_payload_hash", columnNames = {"payload_hash"})
-        },
-        indexes = {
-                @Index(name = "idx_webhook_provider_event_id", columnList = "provider, provider_event_id"),
-                @Index(name = "idx_webhook_payload_hash", columnList = "payload_hash")
         }
 )
 public class WebhookEventJpaEntity {
@@ -49,6 +45,12 @@ public class WebhookEventJpaEntity {
     @Column(name = "raw_payload", nullable = false, columnDefinition = "TEXT")
     private String rawPayload;
 
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
     // Default constructor for JPA
     protected WebhookEventJpaEntity() {
     }
@@ -62,7 +64,9 @@ public class WebhookEventJpaEntity {
             Instant processedAt,
             WebhookProcessingStatus processingStatus,
             String error,
-            String rawPayload
+            String rawPayload,
+            int attempts,
+            Instant nextAttemptAt
     ) {
         this.id = id;
         this.provider = provider;
@@ -73,6 +77,8 @@ public class WebhookEventJpaEntity {
         this.processingStatus = processingStatus;
         this.error = error;
         this.rawPayload = rawPayload;
+        this.attempts = attempts;
+        this.nextAttemptAt = nextAttemptAt;
     }
 
     public static WebhookEventJpaEntity fromDomain(WebhookEvent event) {
@@ -85,7 +91,9 @@ public class WebhookEventJpaEntity {
                 event.getProcessedAt(),
                 event.getProcessingStatus(),
                 event.getError(),
-                event.getRawPayload()
+                event.getRawPayload(),
+                event.getAttempts(),
+                event.getNextAttemptAt()
         );
     }
 
@@ -99,7 +107,9 @@ public class WebhookEventJpaEntity {
                 processedAt,
                 processingStatus,
                 error,
-                rawPayload
+                rawPayload,
+                attempts,
+                nextAttemptAt
         );
     }
 
@@ -175,4 +185,20 @@ public class WebhookEventJpaEntity {
     public void setRawPayload(String rawPayload) {
         this.rawPayload = rawPayload;
     }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
 }
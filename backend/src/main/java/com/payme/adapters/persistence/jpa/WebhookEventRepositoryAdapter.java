@@ -2,10 +2,20 @@ package com.payme.adapters.persistence.jpa;
 
 import com.payme.domain.ProviderName;
 import com.payme.domain.WebhookEvent;
+import com.payme.domain.WebhookEventId;
+import com.payme.domain.WebhookProcessingStatus;
+import com.payme.ports.WebhookDedupeKey;
 import com.payme.ports.WebhookEventRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class WebhookEventRepositoryAdapter implements WebhookEventRepository {
@@ -17,10 +27,67 @@ public class WebhookEventRepositoryAdapter implements WebhookEventRepository {
     }
 
     @Override
-    public WebhookEvent save(WebhookEvent event) {
-        WebhookEventJpaEntity entity = WebhookEventJpaEntity.fromDomain(event);
-        WebhookEventJpaEntity saved = jpaRepository.save(entity);
-        return saved.toDomain();
+    public WebhookEvent update(WebhookEvent event) {
+        int updated = jpaRepository.updateOutcome(
+                event.getId().getValue(),
+                event.getProcessedAt(),
+                event.getProcessingStatus(),
+                event.getError(),
+                event.getAttempts(),
+                event.getNextAttemptAt()
+        );
+        if (updated == 0) {
+            throw new IllegalStateException("Webhook event not found for update: " + event.getId().getValue());
+        }
+        return event;
+    }
+
+    @Override
+    public boolean claim(WebhookEvent event) {
+        int inserted = jpaRepository.insertIfAbsent(
+                event.getId().getValue(),
+                event.getProvider().name(),
+                event.getProviderEventId(),
+                event.getPayloadHash(),
+                event.getReceivedAt(),
+                event.getProcessingStatus().name(),
+                event.getRawPayload()
+        );
+        return inserted == 1;
+    }
+
+    @Override
+    public Optional<WebhookEvent> findById(WebhookEventId id) {
+        return jpaRepository.findById(id.getValue())
+                .map(WebhookEventJpaEntity::toDomain);
+    }
+
+    @Override
+    public Optional<WebhookEvent> findByIdForUpdate(WebhookEventId id) {
+        return jpaRepository.findByIdForUpdate(id.getValue())
+                .map(WebhookEventJpaEntity::toDomain);
+    }
+
+    @Override
+    public List<WebhookEventId> findDueInboxIds(Instant now, int limit) {
+        return jpaRepository.findDueInboxIds(now, PageRequest.of(0, limit))
+                .stream()
+                .map(WebhookEventId::of)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long countByStatus(WebhookProcessingStatus status) {
+        return jpaRepository.countByProcessingStatus(status);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachDedupeKeySince(Instant since, Consumer<WebhookDedupeKey> consumer) {
+        try (Stream<JpaWebhookEventRepository.DedupeKeyView> keys = jpaRepository.streamDedupeKeysSince(since)) {
+            keys.forEach(key -> consumer.accept(
+                    new WebhookDedupeKey(key.getProvider(), key.getProviderEventId(), key.getPayloadHash())));
+        }
     }
 
     @Override
@@ -5,12 +5,17 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Validates that webhook requests come from PayFast's servers.
- * 
- * PayFast production IP addresses are configured in application.yml.
+ *
+ * PayFast production IP addresses are configured in application.yml, either as
+ * single IPv4 addresses or CIDR blocks. They are compiled at startup into
+ * sorted, merged address ranges, so a lookup is a binary search over numeric ranges with
+ * no string comparisons or allocation.
  * For sandbox mode, IP validation is relaxed to allow testing from localhost/ngrok.
  */
 @Component
@@ -19,14 +24,40 @@ public class PayFastIpValidator {
     private static final Logger log = LoggerFactory.getLogger(PayFastIpValidator.class);
 
     private final boolean sandbox;
-    private final List<String> allowedIps;
+    private final long[] rangeStarts;
+    private final long[] rangeEnds;
 
     public PayFastIpValidator(
             @Value("${payfast.sandbox}") boolean sandbox,
             @Value("${payfast.allowed-ips}") List<String> allowedIps) {
         this.sandbox = sandbox;
-        this.allowedIps = allowedIps;
-        log.info("PayFastIpValidator initialized with {} allowed IPs (sandbox: {})", allowedIps.size(), sandbox);
+
+        List<long[]> ranges = new ArrayList<>();
+        for (String entry : allowedIps) {
+            ranges.add(parseRange(entry.trim()));
+        }
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+
+        // Merge overlapping and adjacent ranges
+        List<long[]> merged = new ArrayList<>();
+        for (long[] range : ranges) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(range.clone());
+            }
+        }
+
+        this.rangeStarts = new long[merged.size()];
+        this.rangeEnds = new long[merged.size()];
+        for (int i = 0; i < merged.size(); i++) {
+            rangeStarts[i] = merged.get(i)[0];
+            rangeEnds[i] = merged.get(i)[1];
+        }
+
+        log.info("PayFastIpValidator initialized with {} allowed IP entries in {} ranges (sandbox: {})",
+                allowedIps.size(), merged.size(), sandbox);
     }
 
     /**
@@ -42,14 +73,82 @@ public class PayFastIpValidator {
         }
 
         // Production mode: strict validation
-        boolean isValid = allowedIps.contains(ipAddress);
+        long address = parseIpv4(ipAddress);
+        boolean isValid = address >= 0 && inRanges(address);
 
         if (!isValid) {
-            log.warn("Invalid PayFast IP address: {}. Expected one of: {}", ipAddress, allowedIps);
+            log.warn("Invalid PayFast IP address: {}", ipAddress);
         } else {
             log.debug("Valid PayFast IP: {}", ipAddress);
         }
 
         return isValid;
     }
+
+    private boolean inRanges(long address) {
+        int low = 0;
+        int high = rangeStarts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (address < rangeStarts[mid]) {
+                high = mid - 1;
+            } else if (address > rangeEnds[mid]) {
+                low = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses "a.b.c.d" or "a.b.c.d/n" into an inclusive [start, end] range.
+     */
+    private static long[] parseRange(String entry) {
+        int slash = entry.indexOf('/');
+        String ip = slash < 0 ? entry : entry.substring(0, slash);
+        int prefix = slash < 0 ? 32 : Integer.parseInt(entry.substring(slash + 1));
+
+        long address = parseIpv4(ip);
+        if (address < 0 || prefix < 0 || prefix > 32) {
+            throw new IllegalArgumentException("Invalid PayFast allowed IP entry: " + entry);
+        }
+
+        long size = 1L << (32 - prefix);
+        long start = address & ~(size - 1) & 0xffffffffL;
+        return new long[] { start, start + size - 1 };
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 address into an unsigned value.
+     *
+     * @return The address, or -1 if the string is not a plain IPv4 address
+     */
+    static long parseIpv4(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return -1;
+        }
+
+        long address = 0;
+        int octet = -1;
+        int octets = 0;
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i < ip.length() ? ip.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (octet < 0 || ++octets > 4) {
+                    return -1;
+                }
+                address = (address << 8) | octet;
+                octet = -1;
+            } else {
+                return -1;
+            }
+        }
+        return octets == 4 ? address : -1;
+    }
 }
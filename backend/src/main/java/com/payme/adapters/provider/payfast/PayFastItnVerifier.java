@@ -0,0 +1,387 @@
+package com.payme.adapters.provider.payfast;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Single-pass parser and signature verifier for PayFast ITN bodies.
+ *
+ * Produces the same signature as {@link PayFastSignatureService#generateSignature}
+ * (empty values dropped, keys sorted, values URL-encoded with %20 for spaces,
+ * passphrase appended) without building maps or intermediate strings: the body
+ * is scanned once to record field boundaries, and the canonical bytes are
+ * encoded straight from those ranges into a per-thread MD5 digest.
+ */
+public class PayFastItnVerifier {
+
+    private static final byte[] HEX_UPPER = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SIGNATURE_KEY = "signature".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 1024;
+
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("MD5 algorithm not available", e);
+        }
+    });
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private final byte[] passphraseSuffix;
+
+    public PayFastItnVerifier(String passphrase) {
+        if (passphrase != null && !passphrase.isEmpty()) {
+            byte[] raw = passphrase.getBytes(StandardCharsets.UTF_8);
+            Encoder encoder = new Encoder(new byte[raw.length * 3 + 16], null);
+            encoder.writeAscii("&passphrase=");
+            for (byte b : raw) {
+                encoder.writeEncoded(b & 0xff);
+            }
+            this.passphraseSuffix = encoder.toByteArray();
+        } else {
+            this.passphraseSuffix = new byte[0];
+        }
+    }
+
+    /**
+     * Scans a form-encoded ITN body and records where each field starts and ends.
+     * Segments without '=' are ignored, as with the previous parser.
+     *
+     * @param body Raw application/x-www-form-urlencoded body
+     * @return Parsed ITN backed by the body bytes
+     * @throws IllegalArgumentException if the body contains a malformed percent-escape
+     */
+    public PayFastItn parse(byte[] body) {
+        PayFastItn itn = new PayFastItn(body);
+
+        int segmentStart = 0;
+        int equals = -1;
+        for (int i = 0; i <= body.length; i++) {
+            byte b = i < body.length ? body[i] : (byte) '&';
+            if (b == '&') {
+                if (equals >= 0) {
+                    itn.add(segmentStart, equals, equals + 1, i);
+                }
+                segmentStart = i + 1;
+                equals = -1;
+            } else if (b == '=' && equals < 0) {
+                equals = i;
+            } else if (b == '%') {
+                if (i + 2 >= body.length || hexValue(body[i + 1]) < 0 || hexValue(body[i + 2]) < 0) {
+                    throw new IllegalArgumentException("Malformed percent-escape in ITN body at offset " + i);
+                }
+            }
+        }
+
+        return itn;
+    }
+
+    /**
+     * Verifies the ITN's signature field against the signature computed over its
+     * other fields. The comparison runs in constant time.
+     *
+     * @param itn Parsed ITN
+     * @return true if a signature is present and matches
+     */
+    public boolean verify(PayFastItn itn) {
+        byte[] provided = parseHex(itn.get("signature"));
+        if (provided == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(computeSignature(itn), provided);
+    }
+
+    /**
+     * Computes the raw MD5 signature over the ITN's fields, excluding 'signature'.
+     */
+    byte[] computeSignature(PayFastItn itn) {
+        MessageDigest md5 = MD5.get();
+        md5.reset();
+        Encoder out = new Encoder(BUFFER.get(), md5);
+
+        byte[] body = itn.body;
+        int[] order = itn.sortedFieldOrder();
+        boolean first = true;
+        for (int n = 0; n < order.length; n++) {
+            int field = order[n];
+            // Last occurrence of a key wins, as with the previous map-based parser
+            if (n + 1 < order.length && itn.compareKeys(field, order[n + 1]) == 0) {
+                continue;
+            }
+            if (itn.valueStart(field) == itn.valueEnd(field) || itn.keyEquals(field, SIGNATURE_KEY)) {
+                continue;
+            }
+
+            if (!first) {
+                out.write('&');
+            }
+            first = false;
+
+            decodeInto(body, itn.keyStart(field), itn.keyEnd(field), out, false);
+            out.write('=');
+            decodeInto(body, itn.valueStart(field), itn.valueEnd(field), out, true);
+        }
+        out.write(passphraseSuffix);
+        out.flush();
+
+        return md5.digest();
+    }
+
+    /**
+     * Decodes a raw range and writes it to the encoder, re-encoding each byte
+     * in PayFast's canonical form if requested.
+     */
+    private static void decodeInto(byte[] body, int start, int end, Encoder out, boolean encode) {
+        int i = start;
+        while (i < end) {
+            int b = body[i] & 0xff;
+            if (b == '%') {
+                b = (hexValue(body[i + 1]) << 4) | hexValue(body[i + 2]);
+                i += 3;
+            } else {
+                if (b == '+') {
+                    b = ' ';
+                }
+                i++;
+            }
+            if (encode) {
+                out.writeEncoded(b);
+            } else {
+                out.write(b);
+            }
+        }
+    }
+
+    static int hexValue(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static byte[] parseHex(String hex) {
+        if (hex == null || hex.length() != 32) {
+            return null;
+        }
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            int high = hexValue((byte) hex.charAt(i * 2));
+            int low = hexValue((byte) hex.charAt(i * 2 + 1));
+            if (high < 0 || low < 0 || hex.charAt(i * 2) > 0x7f || hex.charAt(i * 2 + 1) > 0x7f) {
+                return null;
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+
+    /**
+     * Buffered writer that URL-encodes bytes the way URLEncoder does (with %20
+     * for spaces) and flushes into a digest, or collects into an array when no
+     * digest is given.
+     */
+    private static final class Encoder {
+        private byte[] buffer;
+        private final MessageDigest digest;
+        private int length;
+
+        Encoder(byte[] buffer, MessageDigest digest) {
+            this.buffer = buffer;
+            this.digest = digest;
+        }
+
+        void writeEncoded(int b) {
+            if ((b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9')
+                    || b == '.' || b == '-' || b == '*' || b == '_') {
+                write(b);
+            } else {
+                ensureCapacity(3);
+                buffer[length++] = '%';
+                buffer[length++] = HEX_UPPER[b >>> 4];
+                buffer[length++] = HEX_UPPER[b & 0x0f];
+            }
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            buffer[length++] = (byte) b;
+        }
+
+        void write(byte[] bytes) {
+            for (byte b : bytes) {
+                write(b);
+            }
+        }
+
+        void writeAscii(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                write(s.charAt(i));
+            }
+        }
+
+        void flush() {
+            if (digest != null && length > 0) {
+                digest.update(buffer, 0, length);
+                length = 0;
+            }
+        }
+
+        byte[] toByteArray() {
+            byte[] bytes = new byte[length];
+            System.arraycopy(buffer, 0, bytes, 0, length);
+            return bytes;
+        }
+
+        private void ensureCapacity(int needed) {
+            if (length + needed <= buffer.length) {
+                return;
+            }
+            if (digest != null) {
+                flush();
+            } else {
+                byte[] grown = new byte[Math.max(buffer.length * 2, length + needed)];
+                System.arraycopy(buffer, 0, grown, 0, length);
+                buffer = grown;
+            }
+        }
+    }
+
+    /**
+     * Parsed ITN. Holds the raw body and the offsets of each field; values are
+     * only decoded into strings when requested.
+     */
+    public static final class PayFastItn {
+        private final byte[] body;
+        private int[] ranges = new int[4 * 32];
+        private int count;
+
+        private PayFastItn(byte[] body) {
+            this.body = body;
+        }
+
+        /**
+         * Returns the decoded value of the last field with the given name.
+         *
+         * @param name Field name
+         * @return Decoded value, or null if the field is absent
+         */
+        public String get(String name) {
+            byte[] key = name.getBytes(StandardCharsets.UTF_8);
+            for (int field = count - 1; field >= 0; field--) {
+                if (keyEquals(field, key)) {
+                    return decode(valueStart(field), valueEnd(field));
+                }
+            }
+            return null;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        private void add(int keyStart, int keyEnd, int valueStart, int valueEnd) {
+            if (count * 4 == ranges.length) {
+                int[] grown = new int[ranges.length * 2];
+                System.arraycopy(ranges, 0, grown, 0, ranges.length);
+                ranges = grown;
+            }
+            int base = count * 4;
+            ranges[base] = keyStart;
+            ranges[base + 1] = keyEnd;
+            ranges[base + 2] = valueStart;
+            ranges[base + 3] = valueEnd;
+            count++;
+        }
+
+        private int keyStart(int field) {
+            return ranges[field * 4];
+        }
+
+        private int keyEnd(int field) {
+            return ranges[field * 4 + 1];
+        }
+
+        private int valueStart(int field) {
+            return ranges[field * 4 + 2];
+        }
+
+        private int valueEnd(int field) {
+            return ranges[field * 4 + 3];
+        }
+
+        /**
+         * Field indexes ordered by decoded key; equal keys keep body order.
+         */
+        private int[] sortedFieldOrder() {
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                int j = i;
+                while (j > 0 && compareKeys(order[j - 1], i) > 0) {
+                    order[j] = order[j - 1];
+                    j--;
+                }
+                order[j] = i;
+            }
+            return order;
+        }
+
+        /**
+         * Compares two fields' keys byte by byte after percent-decoding.
+         */
+        private int compareKeys(int a, int b) {
+            int i = keyStart(a);
+            int iEnd = keyEnd(a);
+            int j = keyStart(b);
+            int jEnd = keyEnd(b);
+            while (i < iEnd && j < jEnd) {
+                int c1 = decodedByteAt(i);
+                i += body[i] == '%' ? 3 : 1;
+                int c2 = decodedByteAt(j);
+                j += body[j] == '%' ? 3 : 1;
+                if (c1 != c2) {
+                    return c1 - c2;
+                }
+            }
+            return (i < iEnd ? 1 : 0) - (j < jEnd ? 1 : 0);
+        }
+
+        private boolean keyEquals(int field, byte[] key) {
+            int i = keyStart(field);
+            int end = keyEnd(field);
+            int k = 0;
+            while (i < end) {
+                if (k == key.length || decodedByteAt(i) != (key[k] & 0xff)) {
+                    return false;
+                }
+                i += body[i] == '%' ? 3 : 1;
+                k++;
+            }
+            return k == key.length;
+        }
+
+        private int decodedByteAt(int i) {
+            byte b = body[i];
+            if (b == '%') {
+                return (hexValue(body[i + 1]) << 4) | hexValue(body[i + 2]);
+            }
+            return b == '+' ? ' ' : b & 0xff;
+        }
+
+        private String decode(int start, int end) {
+            byte[] decoded = new byte[end - start];
+            int length = 0;
+            for (int i = start; i < end; i += body[i] == '%' ? 3 : 1) {
+                decoded[length++] = (byte) decodedByteAt(i);
+            }
+            return new String(decoded, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
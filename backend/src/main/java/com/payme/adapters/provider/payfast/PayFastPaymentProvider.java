@@ -12,11 +12,8 @@ import com.payme.ports.PaymentProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -35,13 +32,13 @@ public class PayFastPaymentProvider implements PaymentProvider {
     private final PayFastConfig config;
     private final HashService hashService;
     private final ObjectMapper objectMapper;
-    private final PayFastIpValidator ipValidator;
+    private final PayFastItnVerifier itnVerifier;
 
-    public PayFastPaymentProvider(PayFastConfig config, HashService hashService, ObjectMapper objectMapper, PayFastIpValidator ipValidator) {
+    public PayFastPaymentProvider(PayFastConfig config, HashService hashService, ObjectMapper objectMapper) {
         this.config = config;
         this.hashService = hashService;
         this.objectMapper = objectMapper;
-        this.ipValidator = ipValidator;
+        this.itnVerifier = new PayFastItnVerifier(config.getPassphrase());
     }
 
     @Override
@@ -87,27 +84,29 @@ public class PayFastPaymentProvider implements PaymentProvider {
     @Override
     public CanonicalPaymentEvent verifyAndParseWebhook(String rawBody, Map<String, String> headers)
             throws WebhookVerificationException {
+        return verifyAndParseWebhook(rawBody.getBytes(StandardCharsets.UTF_8), headers);
+    }
+
+    @Override
+    public CanonicalPaymentEvent verifyAndParseWebhook(byte[] rawBody, Map<String, String> headers)
+            throws WebhookVerificationException {
         
         log.info("PayFast: Parsing ITN webhook");
 
         try {
-            // Parse form-encoded body into map
-            Map<String, String> params = parseFormEncodedBody(rawBody);
+            // Scan the form-encoded body once, recording field boundaries
+            PayFastItnVerifier.PayFastItn itn = itnVerifier.parse(rawBody);
 
-            // Extract and remove signature
-            String providedSignature = params.remove("signature");
+            String providedSignature = itn.get("signature");
             if (providedSignature == null || providedSignature.isEmpty()) {
                 throw new PayFastSignatureException("No signature provided in PayFast ITN");
             }
 
-            log.debug("PayFast ITN parameters: {}", params.keySet());
-            log.debug("Provided signature: {}", providedSignature);
+            log.debug("PayFast ITN fields: {}", itn.size());
 
             // Verify signature
-            boolean signatureValid = PayFastSignatureService.verifySignature(
-                    params, providedSignature, config.getPassphrase());
-
-            if (!signatureValid) {
+            if (!itnVerifier.verify(itn)) {
+                log.warn("PayFast signature mismatch. Provided: {}", providedSignature);
                 throw new PayFastSignatureException(
                         "PayFast signature verification failed. Expected signature does not match provided signature.");
             }
@@ -115,11 +114,11 @@ public class PayFastPaymentProvider implements PaymentProvider {
             log.info("PayFast: Signature verified successfully");
 
             // Extract key fields
-            String pfPaymentId = params.get("pf_payment_id");
-            String paymentStatus = params.get("payment_status");
-            String mPaymentId = params.get("m_payment_id");
-            String customStr1 = params.get("custom_str1");
-            String amountGross = params.get("amount_gross");
+            String pfPaymentId = itn.get("pf_payment_id");
+            String paymentStatus = itn.get("payment_status");
+            String mPaymentId = itn.get("m_payment_id");
+            String customStr1 = itn.get("custom_str1");
+            String amountGross = itn.get("amount_gross");
 
             log.info("PayFast ITN: pf_payment_id={}, payment_status={}, m_payment_id={}, amount_gross={}",
                     pfPaymentId, paymentStatus, mPaymentId, amountGross);
@@ -153,36 +152,6 @@ public class PayFastPaymentProvider implements PaymentProvider {
         }
     }
 
-    /**
-     * Parses form-encoded body (application/x-www-form-urlencoded) into a map.
-     *
-     * @param body Form-encoded body
-     * @return Map of parameters
-     */
-    private Map<String, String> parseFormEncodedBody(String body) {
-        Map<String, String> params = new HashMap<>();
-
-        if (body == null || body.isEmpty()) {
-            return params;
-        }
-
-        String[] pairs = body.split("&");
-        for (String pair : pairs) {
-            String[] keyValue = pair.split("=", 2);
-            if (keyValue.length == 2) {
-                try {
-                    String key = URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8.name());
-                    String value = URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8.name());
-                    params.put(key, value);
-                } catch (UnsupportedEncodingException e) {
-                    log.warn("Failed to decode parameter: {}", pair);
-                }
-            }
-        }
-
-        return params;
-    }
-
     /**
      * Maps PayFast payment status to canonical event status.
      *
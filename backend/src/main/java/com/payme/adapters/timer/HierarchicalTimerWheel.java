@@ -0,0 +1,305 @@
+package com.payme.adapters.timer;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timer wheel over a fixed, preallocated pool of timers.
+ *
+ * Time is counted in ticks. Level 0 has one slot per tick; each higher level
+ * has slots covering a whole rotation of the level below, and its slots are
+ * cascaded down as the lower level wraps around. Scheduling, rescheduling and
+ * cancelling are O(1); advancing costs O(1) per tick plus the timers that are
+ * cascaded or fire.
+ *
+ * Timers live in parallel arrays linked into per-slot doubly linked lists by
+ * index, with an open-addressing index from key to timer, so the wheel
+ * allocates nothing after construction and its memory is fixed by its
+ * capacity. When every timer is in use, {@link #schedule} refuses new keys.
+ *
+ * Not thread-safe; callers serialize access.
+ *
+ * @param <K> Timer key; one timer per key
+ */
+public final class HierarchicalTimerWheel<K> {
+
+    private static final int NONE = -1;
+
+    private final int slotBits;
+    private final int slotMask;
+    private final int levels;
+    private final long maxDelta;
+
+    // Head timer of each slot's list, indexed level * slotsPerLevel + slot
+    private final int[] heads;
+
+    // Timer pool; free timers are chained through next
+    private final Object[] keys;
+    private final long[] deadlines;
+    private final int[] next;
+    private final int[] prev;
+    private final int[] slotOf;
+    private int freeHead;
+    private int size;
+
+    // Key to timer index: linear probing, storing timer + 1 so 0 means empty
+    private final int[] index;
+    private final int indexMask;
+
+    private long currentTick;
+
+    /**
+     * @param capacity  Maximum number of pending timers
+     * @param slotBits  log2 of the slots per level
+     * @param levels    Number of levels; the wheel spans 2^(slotBits * levels) ticks
+     * @param startTick The current tick
+     */
+    public HierarchicalTimerWheel(int capacity, int slotBits, int levels, long startTick) {
+        if (capacity <= 0 || capacity > (1 << 29)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^29: " + capacity);
+        }
+        if (slotBits <= 0 || levels <= 0 || slotBits * levels > 62) {
+            throw new IllegalArgumentException("Invalid wheel shape: " + levels + " levels of 2^" + slotBits + " slots");
+        }
+        this.slotBits = slotBits;
+        this.slotMask = (1 << slotBits) - 1;
+        this.levels = levels;
+        this.maxDelta = (1L << (slotBits * levels)) - 1;
+
+        this.heads = new int[levels << slotBits];
+        Arrays.fill(heads, NONE);
+
+        this.keys = new Object[capacity];
+        this.deadlines = new long[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.slotOf = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            next[i] = i + 1 < capacity ? i + 1 : NONE;
+        }
+        this.freeHead = 0;
+
+        int indexSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.index = new int[indexSize];
+        this.indexMask = indexSize - 1;
+
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Schedules the key's timer to fire at the given tick, replacing any timer
+     * the key already has. Deadlines that are not in the future fire on the
+     * next tick.
+     *
+     * @return false if the key had no timer and the wheel is full
+     */
+    public boolean schedule(K key, long deadlineTick) {
+        int timer = find(key);
+        if (timer != NONE) {
+            unlink(timer);
+        } else {
+            if (freeHead == NONE) {
+                return false;
+            }
+            timer = freeHead;
+            freeHead = next[timer];
+            keys[timer] = key;
+            indexInsert(key, timer);
+            size++;
+        }
+        deadlines[timer] = deadlineTick;
+        place(timer, currentTick + 1);
+        return true;
+    }
+
+    /**
+     * @return true if the key had a pending timer
+     */
+    public boolean cancel(K key) {
+        int timer = find(key);
+        if (timer == NONE) {
+            return false;
+        }
+        unlink(timer);
+        release(timer);
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the given tick, handing every timer that fires on
+     * the way to the consumer, tick by tick. Fired timers are removed before
+     * the consumer sees them. The consumer must not schedule or cancel timers;
+     * collect the keys and act on them once this returns.
+     */
+    public void advanceTo(long tick, Consumer<K> fired) {
+        while (currentTick < tick) {
+            long now = ++currentTick;
+
+            // Cascade from the highest level whose lower levels have all just wrapped
+            int top = 0;
+            while (top + 1 < levels && (now & ((1L << (slotBits * (top + 1))) - 1)) == 0) {
+                top++;
+            }
+            for (int level = top; level >= 1; level--) {
+                cascade(level, (int) ((now >>> (slotBits * level)) & slotMask));
+            }
+
+            expireSlot((int) (now & slotMask), now, fired);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    private void cascade(int level, int slot) {
+        int timer = detach(level, slot);
+        while (timer != NONE) {
+            int following = next[timer];
+            place(timer, currentTick);
+            timer = following;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expireSlot(int slot, long now, Consumer<K> fired) {
+        int timer = detach(0, slot);
+        while (timer != NONE) {
+            int following = next[timer];
+            if (deadlines[timer] <= now) {
+                K key = (K) keys[timer];
+                release(timer);
+                fired.accept(key);
+            } else {
+                // Deadline was beyond the wheel's span when placed; go round again
+                place(timer, now + 1);
+            }
+            timer = following;
+        }
+    }
+
+    /**
+     * Links the timer into the slot its deadline falls in, relative to the
+     * current tick, firing no earlier than earliestTick.
+     */
+    private void place(int timer, long earliestTick) {
+        long deadline = Math.max(deadlines[timer], earliestTick);
+        long delta = deadline - currentTick;
+        if (delta > maxDelta) {
+            deadline = currentTick + maxDelta;
+            delta = maxDelta;
+        }
+        int level = 0;
+        while (level + 1 < levels && delta >= (1L << (slotBits * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((deadline >>> (slotBits * level)) & slotMask);
+        link(timer, (level << slotBits) | slot);
+    }
+
+    private void link(int timer, int headIndex) {
+        int head = heads[headIndex];
+        next[timer] = head;
+        prev[timer] = NONE;
+        if (head != NONE) {
+            prev[head] = timer;
+        }
+        heads[headIndex] = timer;
+        slotOf[timer] = headIndex;
+    }
+
+    private void unlink(int timer) {
+        int before = prev[timer];
+        int after = next[timer];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            heads[slotOf[timer]] = after;
+        }
+        if (after != NONE) {
+            prev[after] = before;
+        }
+    }
+
+    /**
+     * Empties a slot and returns its first timer; the rest stay chained through next.
+     */
+    private int detach(int level, int slot) {
+        int headIndex = (level << slotBits) | slot;
+        int head = heads[headIndex];
+        heads[headIndex] = NONE;
+        return head;
+    }
+
+    private void release(int timer) {
+        indexRemove(timer);
+        keys[timer] = null;
+        next[timer] = freeHead;
+        freeHead = timer;
+        size--;
+    }
+
+    private int find(Object key) {
+        int i = home(key);
+        int entry;
+        while ((entry = index[i]) != 0) {
+            if (keys[entry - 1].equals(key)) {
+                return entry - 1;
+            }
+            i = (i + 1) & indexMask;
+        }
+        return NONE;
+    }
+
+    private void indexInsert(Object key, int timer) {
+        int i = home(key);
+        while (index[i] != 0) {
+            i = (i + 1) & indexMask;
+        }
+        index[i] = timer + 1;
+    }
+
+    /**
+     * Removes the timer from the index, shifting later entries of its probe
+     * run back so lookups never stop at a hole.
+     */
+    private void indexRemove(int timer) {
+        int hole = home(keys[timer]);
+        while (index[hole] != timer + 1) {
+            hole = (hole + 1) & indexMask;
+        }
+        index[hole] = 0;
+
+        int i = hole;
+        while (true) {
+            i = (i + 1) & indexMask;
+            int entry = index[i];
+            if (entry == 0) {
+                return;
+            }
+            int home = home(keys[entry - 1]);
+            // Move the entry back unless its home lies cyclically in (hole, i]
+            boolean staysPut = hole <= i
+                    ? hole < home && home <= i
+                    : hole < home || home <= i;
+            if (!staysPut) {
+                index[hole] = entry;
+                index[i] = 0;
+                hole = i;
+            }
+        }
+    }
+
+    private int home(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & indexMask;
+    }
+}
@@ -0,0 +1,128 @@
+package com.payme.adapters.timer;
+
+import com.payme.config.ExpiryTimerConfig;
+import com.payme.domain.InvoiceId;
+import com.payme.ports.InvoiceExpiryScheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Invoice expiry timers on a {@link HierarchicalTimerWheel}.
+ *
+ * Four levels of 256 slots at the configured tick (100ms by default) span
+ * far beyond any invoice lifetime. The wheel's arrays are allocated once for
+ * the configured capacity, roughly 40 bytes per timer plus the invoice IDs
+ * held, and invoices beyond that are left to the expiry sweeper. When
+ * disabled, nothing is allocated and every schedule is refused.
+ */
+@Component
+public class TimerWheelExpiryScheduler implements InvoiceExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TimerWheelExpiryScheduler.class);
+
+    private static final int SLOT_BITS = 8;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final HierarchicalTimerWheel<InvoiceId> wheel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter rejectedCounter;
+
+    public TimerWheelExpiryScheduler(ExpiryTimerConfig config, MeterRegistry meterRegistry) {
+        this.tickMillis = Math.max(1, config.getTick().toMillis());
+        this.wheel = config.isEnabled()
+                ? new HierarchicalTimerWheel<>(config.getCapacity(), SLOT_BITS, LEVELS, toTick(Instant.now()))
+                : null;
+
+        Gauge.builder("payme.invoices.expiry.timers.pending", this, scheduler -> scheduler.size())
+                .description("Invoice expiry timers waiting to fire")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("payme.invoices.expiry.timers.rejected")
+                .description("Expiry timers refused because the wheel was full")
+                .register(meterRegistry);
+
+        log.info("TimerWheelExpiryScheduler initialized with capacity {} and {}ms ticks (enabled: {})",
+                config.getCapacity(), tickMillis, config.isEnabled());
+    }
+
+    @Override
+    public boolean schedule(InvoiceId invoiceId, Instant dueAt) {
+        if (wheel == null) {
+            return false;
+        }
+        boolean scheduled;
+        lock.lock();
+        try {
+            scheduled = wheel.schedule(invoiceId, tickAfter(dueAt));
+        } finally {
+            lock.unlock();
+        }
+        if (!scheduled) {
+            rejectedCounter.increment();
+        }
+        return scheduled;
+    }
+
+    @Override
+    public void cancel(InvoiceId invoiceId) {
+        if (wheel == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            wheel.cancel(invoiceId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<InvoiceId> pollDue(Instant now) {
+        if (wheel == null) {
+            return List.of();
+        }
+        List<InvoiceId> due = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advanceTo(toTick(now), due::add);
+        } finally {
+            lock.unlock();
+        }
+        return due;
+    }
+
+    private int size() {
+        if (wheel == null) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long toTick(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), tickMillis);
+    }
+
+    /**
+     * The first tick that starts strictly after the instant, so a timer only
+     * fires once the invoice counts as expired (Invoice.isExpired is strict).
+     * Rounding up from toEpochMilli would miss the sub-millisecond part the
+     * conversion truncates; the tick after the truncated one never does.
+     */
+    private long tickAfter(Instant instant) {
+        return toTick(instant) + 1;
+    }
+}
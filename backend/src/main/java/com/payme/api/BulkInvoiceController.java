@@ -0,0 +1,258 @@
+package com.payme.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.payme.api.dto.BulkInvoiceItemResult;
+import com.payme.api.dto.BulkInvoiceResponse;
+import com.payme.api.dto.CreateInvoiceRequest;
+import com.payme.application.BulkCreateInvoicesUseCase;
+import com.payme.application.BulkCreateInvoicesUseCase.NewInvoice;
+import com.payme.application.BulkCreateInvoicesUseCase.Result;
+import com.payme.config.BulkInvoiceConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Creates invoices in bulk. Up to payme.invoices.bulk.max-items can be sent as
+ * a JSON array; larger runs are sent as NDJSON, one invoice per line, and get
+ * an NDJSON line back per invoice, written a chunk at a time while the rest of
+ * the body is still being read.
+ */
+@RestController
+@RequestMapping("/api/invoices/bulk")
+public class BulkInvoiceController {
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final BulkCreateInvoicesUseCase bulkCreateInvoicesUseCase;
+    private final Validator validator;
+    private final BulkInvoiceConfig config;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+
+    public BulkInvoiceController(
+            BulkCreateInvoicesUseCase bulkCreateInvoicesUseCase,
+            Validator validator,
+            BulkInvoiceConfig config,
+            ObjectMapper objectMapper
+    ) {
+        this.bulkCreateInvoicesUseCase = bulkCreateInvoicesUseCase;
+        this.validator = validator;
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(CreateInvoiceRequest.class);
+        this.resultWriter = objectMapper.writerFor(BulkInvoiceItemResult.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkInvoiceResponse> createInvoices(
+            @RequestBody List<CreateInvoiceRequest> requests,
+            HttpServletRequest httpRequest
+    ) {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one invoice is required");
+        }
+        if (requests.size() > config.getMaxItems()) {
+            throw new IllegalArgumentException("At most " + config.getMaxItems()
+                    + " invoices can be sent as a JSON array; send larger runs as " + APPLICATION_NDJSON);
+        }
+
+        List<Supplier<NewInvoice>> items = new ArrayList<>(requests.size());
+        for (CreateInvoiceRequest request : requests) {
+            items.add(() -> toNewInvoice(request));
+        }
+        List<Result> results = bulkCreateInvoicesUseCase.execute(items);
+
+        String baseUrl = getBaseUrl(httpRequest);
+        List<BulkInvoiceItemResult> itemResults = new ArrayList<>(results.size());
+        int[] counts = new int[BulkCreateInvoicesUseCase.Status.values().length];
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            counts[result.getStatus().ordinal()]++;
+            itemResults.add(BulkInvoiceItemResult.from(i, result, baseUrl));
+        }
+
+        BulkInvoiceResponse response = new BulkInvoiceResponse(
+                counts[BulkCreateInvoicesUseCase.Status.CREATED.ordinal()],
+                counts[BulkCreateInvoicesUseCase.Status.REJECTED.ordinal()],
+                counts[BulkCreateInvoicesUseCase.Status.FAILED.ordinal()],
+                itemResults
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response);
+    }
+
+    /**
+     * Reads the body a chunk of lines at a time, so memory use does not grow
+     * with the size of the run. Lines are parsed on the validation workers
+     * along with the rest of the checks; a line that cannot be parsed, or is
+     * longer than payme.invoices.bulk.max-line-length, is rejected like any
+     * other invalid item.
+     */
+    @PostMapping(consumes = APPLICATION_NDJSON, produces = APPLICATION_NDJSON)
+    public void createInvoicesFromStream(
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse
+    ) throws IOException {
+        String baseUrl = getBaseUrl(httpRequest);
+        httpResponse.setStatus(HttpStatus.OK.value());
+        httpResponse.setContentType(APPLICATION_NDJSON);
+        httpResponse.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+
+        BoundedLineReader reader = new BoundedLineReader(
+                new BufferedReader(new InputStreamReader(httpRequest.getInputStream(), StandardCharsets.UTF_8)),
+                config.getMaxLineLength());
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(httpResponse.getOutputStream())) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            List<Supplier<NewInvoice>> chunk = new ArrayList<>(config.getChunkSize());
+            int index = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (reader.isTruncated()) {
+                    chunk.add(() -> {
+                        throw new IllegalArgumentException(
+                                "Line exceeds " + config.getMaxLineLength() + " characters");
+                    });
+                } else if (line.isBlank()) {
+                    continue;
+                } else {
+                    String item = line;
+                    chunk.add(() -> toNewInvoice(parse(item)));
+                }
+                if (chunk.size() == config.getChunkSize()) {
+                    index = writeResults(json, bulkCreateInvoicesUseCase.execute(chunk), index, baseUrl);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeResults(json, bulkCreateInvoicesUseCase.execute(chunk), index, baseUrl);
+            }
+        }
+    }
+
+    private int writeResults(JsonGenerator json, List<Result> results, int firstIndex, String baseUrl) throws IOException {
+        int index = firstIndex;
+        for (Result result : results) {
+            resultWriter.writeValue(json, BulkInvoiceItemResult.from(index++, result, baseUrl));
+            json.writeRaw('\n');
+        }
+        // Lets the client see each chunk's results while it sends the next
+        json.flush();
+        return index;
+    }
+
+    private CreateInvoiceRequest parse(String line) {
+        try {
+            return requestReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Not a valid invoice: " + e.getOriginalMessage());
+        }
+    }
+
+    private NewInvoice toNewInvoice(CreateInvoiceRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Invoice is missing");
+        }
+        Set<ConstraintViolation<CreateInvoiceRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return new NewInvoice(
+                request.getMerchantId(),
+                request.getAmount(),
+                request.getCurrency(),
+                request.getDescription(),
+                request.getExpiryHours()
+        );
+    }
+
+    private String getBaseUrl(HttpServletRequest request) {
+        String scheme = request.getScheme();
+        String serverName = request.getServerName();
+        int serverPort = request.getServerPort();
+
+        String portPart = "";
+        if ((scheme.equals("http") && serverPort != 80) ||
+            (scheme.equals("https") && serverPort != 443)) {
+            portPart = ":" + serverPort;
+        }
+
+        return scheme + "://" + serverName + portPart;
+    }
+
+    /**
+     * Reads lines keeping at most maxLength characters of each, so a body
+     * without line breaks cannot be buffered whole. The rest of a longer line
+     * is read and dropped.
+     */
+    private static final class BoundedLineReader {
+        private final Reader reader;
+        private final int maxLength;
+        private final StringBuilder line = new StringBuilder();
+        private boolean truncated;
+
+        BoundedLineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * @return The next line without its line break, or null at the end of the body
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            int c;
+            while ((c = reader.read()) != -1 && c != '\n') {
+                if (line.length() < maxLength) {
+                    line.append((char) c);
+                } else {
+                    truncated = true;
+                }
+            }
+            if (c == -1 && line.length() == 0 && !truncated) {
+                return null;
+            }
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            return line.toString();
+        }
+
+        /**
+         * @return Whether the line last read was cut off at maxLength
+         */
+        boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.payme.api;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolves the client IP address of a request.
+ */
+final class ClientIpAddresses {
+
+    private ClientIpAddresses() {
+    }
+
+    /**
+     * Returns the address the connection came from.
+     *
+     * Forwarding headers are deliberately not read here: the caller sets them,
+     * so trusting them would let anyone claim an allowlisted address. Behind a
+     * proxy, set server.forward-headers-strategy and the trusted proxies in
+     * application.yml, and the container rewrites the remote address from the
+     * headers those proxies add.
+     *
+     * @param request HTTP request
+     * @return Client IP address
+     */
+    static String resolve(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
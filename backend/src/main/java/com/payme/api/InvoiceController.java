@@ -1,15 +1,35 @@
 package com.payme.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.payme.api.dto.CreateInvoiceRequest;
 import com.payme.api.dto.InvoiceResponse;
 import com.payme.application.CreateInvoiceUseCase;
 import com.payme.application.GetInvoiceUseCase;
+import com.payme.application.ListInvoicesUseCase;
 import com.payme.domain.Invoice;
+import com.payme.domain.InvoiceStatus;
+import com.payme.domain.MerchantId;
+import com.payme.ports.InvoiceCursor;
+import com.payme.ports.InvoiceListQuery;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/invoices")
@@ -17,13 +37,25 @@ public class InvoiceController {
 
     private final CreateInvoiceUseCase createInvoiceUseCase;
     private final GetInvoiceUseCase getInvoiceUseCase;
+    private final ListInvoicesUseCase listInvoicesUseCase;
+    private final MerchantApiKeys merchantApiKeys;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter invoiceWriter;
 
     public InvoiceController(
             CreateInvoiceUseCase createInvoiceUseCase,
-            GetInvoiceUseCase getInvoiceUseCase
+            GetInvoiceUseCase getInvoiceUseCase,
+            ListInvoicesUseCase listInvoicesUseCase,
+            MerchantApiKeys merchantApiKeys,
+            ObjectMapper objectMapper
     ) {
         this.createInvoiceUseCase = createInvoiceUseCase;
         this.getInvoiceUseCase = getInvoiceUseCase;
+        this.listInvoicesUseCase = listInvoicesUseCase;
+        this.merchantApiKeys = merchantApiKeys;
+        this.objectMapper = objectMapper;
+        this.invoiceWriter = objectMapper.writerFor(InvoiceResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
@@ -48,14 +80,101 @@ public class InvoiceController {
     @GetMapping("/{invoiceId}")
     public ResponseEntity<InvoiceResponse> getInvoice(
             @PathVariable String invoiceId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             HttpServletRequest httpRequest
     ) {
         Invoice invoice = getInvoiceUseCase.execute(invoiceId);
-        
+
+        String etag = InvoiceHttpCaching.etag(invoice, null);
+        CacheControl cacheControl = InvoiceHttpCaching.cacheControl(invoice);
+        if (InvoiceHttpCaching.notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
         String baseUrl = getBaseUrl(httpRequest);
         InvoiceResponse response = InvoiceResponse.fromDomain(invoice, baseUrl);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(response);
+    }
+
+    /**
+     * Lists a merchant's invoices, newest first, a page at a time. Pass the
+     * previous page's nextCursor as cursor to get the next one; it is null on
+     * the last page. Invoices are written to the response as they are read
+     * rather than collected first. Needs the merchant's API key in X-Api-Key.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listInvoices(
+            @RequestHeader(value = MerchantApiKeys.HEADER, required = false) String apiKey,
+            @RequestParam(required = false) String merchantId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String createdBefore,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
+        // Everything is checked up front, since errors can no longer be
+        // reported once the body has started
+        if (merchantId == null || merchantId.isBlank()) {
+            throw new IllegalArgumentException("merchantId is required");
+        }
+        merchantApiKeys.authenticate(merchantId, apiKey);
+        InvoiceListQuery query = new InvoiceListQuery(
+                new MerchantId(merchantId),
+                status == null ? null : parseStatus(status),
+                createdBefore == null ? null : parseInstant("createdBefore", createdBefore),
+                cursor == null ? null : InvoiceCursors.decode(cursor)
+        );
+        int pageSize = limit == null ? ListInvoicesUseCase.DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > ListInvoicesUseCase.MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + ListInvoicesUseCase.MAX_LIMIT);
+        }
+
+        String baseUrl = getBaseUrl(httpRequest);
+        StreamingResponseBody body = out -> writeInvoicePage(out, query, pageSize, baseUrl);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    private void writeInvoicePage(OutputStream out, InvoiceListQuery query, int limit, String baseUrl) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeArrayFieldStart("invoices");
+            Optional<InvoiceCursor> next;
+            try {
+                next = listInvoicesUseCase.execute(query, limit, invoice -> {
+                    try {
+                        invoiceWriter.writeValue(json, InvoiceResponse.fromDomain(invoice, baseUrl));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            json.writeEndArray();
+            json.writeStringField("nextCursor", next.map(InvoiceCursors::encode).orElse(null));
+            json.writeEndObject();
+        }
+    }
+
+    private static InvoiceStatus parseStatus(String status) {
+        try {
+            return InvoiceStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status: " + status);
+        }
+    }
+
+    private static Instant parseInstant(String name, String value) {
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO-8601 instant, e.g. 2025-01-31T00:00:00Z");
+        }
     }
 
     private String getBaseUrl(HttpServletRequest request) {
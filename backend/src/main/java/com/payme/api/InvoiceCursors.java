@@ -0,0 +1,47 @@
+package com.payme.api;
+
+import com.payme.domain.InvoiceId;
+import com.payme.ports.InvoiceCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque listing cursors. Clients pass back what they were given; the
+ * encoding is URL-safe and may change without notice.
+ */
+final class InvoiceCursors {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private InvoiceCursors() {
+    }
+
+    static String encode(InvoiceCursor cursor) {
+        Instant createdAt = cursor.getCreatedAt();
+        String raw = createdAt.getEpochSecond() + "." + createdAt.getNano() + ":" + cursor.getInvoiceId().getValue();
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode}
+     */
+    static InvoiceCursor decode(String cursor) {
+        try {
+            String raw = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int dot = raw.indexOf('.');
+            int colon = raw.indexOf(':', dot + 1);
+            if (dot < 0 || colon < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Instant createdAt = Instant.ofEpochSecond(
+                    Long.parseLong(raw.substring(0, dot)),
+                    Long.parseLong(raw.substring(dot + 1, colon)));
+            return new InvoiceCursor(createdAt, new InvoiceId(raw.substring(colon + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.payme.api;
+
+import com.payme.api.dto.InvoiceStatusEvent;
+import com.payme.config.InvoiceEventStreamConfig;
+import com.payme.config.WorkerThreads;
+import com.payme.domain.InvoiceId;
+import com.payme.ports.InvoiceStatusChange;
+import com.payme.ports.InvoiceStatusNotifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Event streams of invoice status, for customers waiting on the
+ * pay page.
+ *
+ * Subscribers are held per invoice on this node and bounded both in total and
+ * per invoice. Status changes are fanned out once the transaction that made
+ * them commits. Each stream has its own queue of pending events, written in
+ * order by one of a few sender threads, so publishing never blocks and a
+ * client that stops reading only holds up its own stream. A stream is dropped
+ * once one write has been blocked for the write timeout, or once it falls
+ * max-pending-sends events behind. The sender blocked on it stays tied up
+ * until the container gives up on the write; with virtual threads that costs
+ * nothing. Idle streams get a comment line every heartbeat interval so proxies
+ * keep them open; clients reconnect after the stream times out.
+ */
+@Component
+public class InvoiceEventStreams implements InvoiceStatusNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceEventStreams.class);
+
+    private static final String STATUS_EVENT = "status";
+
+    private final InvoiceEventStreamConfig config;
+    private final long writeTimeoutNanos;
+    private final Map<InvoiceId, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadPoolExecutor senders;
+    private final Counter rejectedCounter;
+    private final Counter droppedCounter;
+
+    public InvoiceEventStreams(InvoiceEventStreamConfig config, MeterRegistry meterRegistry, Environment environment) {
+        this.config = config;
+        this.writeTimeoutNanos = config.getWriteTimeout().toNanos();
+        // Holds at most one drain per stream, so it is bounded by max-subscribers
+        this.senders = new ThreadPoolExecutor(
+                config.getSenders(),
+                config.getSenders(),
+                0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                WorkerThreads.factory("pay-page-events-", environment),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("payme.pay_page.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open pay page event streams on this node")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("payme.pay_page.events.rejected")
+                .description("Event stream subscriptions refused because the node or invoice was at its limit")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("payme.pay_page.events.dropped")
+                .description("Event streams dropped because their client stopped reading")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for an invoice and sends its current status as the first
+     * event. The subscription is registered before the status is read, so a
+     * change committed in between is delivered rather than lost; changes
+     * published before the status is queued are held back and follow it, so
+     * a stale read (from a replica or the cache) never lands after them.
+     *
+     * @param currentStatus Reads the invoice's current status; exceptions propagate
+     * @return The stream, or empty if this node or invoice has no room for another subscriber
+     */
+    public Optional<SseEmitter> subscribe(InvoiceId invoiceId, Supplier<InvoiceStatusChange> currentStatus) {
+        Subscriber subscriber = register(invoiceId);
+        if (subscriber == null) {
+            rejectedCounter.increment();
+            return Optional.empty();
+        }
+
+        InvoiceStatusChange current;
+        try {
+            current = currentStatus.get();
+        } catch (RuntimeException e) {
+            unregister(subscriber);
+            throw e;
+        }
+        subscriber.start(current);
+        return Optional.of(subscriber.emitter);
+    }
+
+    @Override
+    public void statusChanged(InvoiceStatusChange change) {
+        // Subscribers are looked up after the commit, so one that subscribes
+        // while the transaction is still open gets the change too
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(change);
+                }
+            });
+        } else {
+            publish(change);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payme.pay-page.events.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        subscribers.values().forEach(streams -> streams.forEach(subscriber -> {
+            // A stream with events still to write is not idle
+            if (subscriber.isIdle()) {
+                subscriber.enqueue(null);
+            }
+        }));
+    }
+
+    /**
+     * Drops streams whose current write has been blocked for longer than the
+     * write timeout, so nothing more is queued for a client that is not reading.
+     */
+    @Scheduled(fixedDelayString = "${payme.pay-page.events.stall-check-interval:PT1S}")
+    public void dropStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(streams -> streams.forEach(subscriber -> {
+            if (subscriber.isStalled(now)) {
+                subscriber.drop("a write was blocked for " + config.getWriteTimeout());
+            }
+        }));
+    }
+
+    private void publish(InvoiceStatusChange change) {
+        Set<Subscriber> streams = subscribers.get(change.getInvoiceId());
+        if (streams == null) {
+            return;
+        }
+        for (Subscriber subscriber : streams) {
+            subscriber.enqueue(change);
+        }
+    }
+
+    private Subscriber register(InvoiceId invoiceId) {
+        if (subscriberCount.incrementAndGet() > config.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+
+        Subscriber subscriber = new Subscriber(invoiceId, new SseEmitter(config.getTimeout().toMillis()));
+        boolean[] added = new boolean[1];
+        subscribers.compute(invoiceId, (id, streams) -> {
+            Set<Subscriber> set = streams != null ? streams : new CopyOnWriteArraySet<>();
+            if (set.size() < config.getMaxSubscribersPerInvoice()) {
+                added[0] = set.add(subscriber);
+            }
+            return set.isEmpty() ? null : set;
+        });
+        if (!added[0]) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+
+        // The container has finished with the stream; nothing is left to complete
+        subscriber.emitter.onCompletion(() -> subscriber.close(false));
+        subscriber.emitter.onTimeout(() -> subscriber.close(false));
+        subscriber.emitter.onError(e -> subscriber.close(false));
+        return subscriber;
+    }
+
+    private void unregister(Subscriber subscriber) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(subscriber.invoiceId, (id, streams) -> {
+            removed[0] = streams.remove(subscriber);
+            return streams.isEmpty() ? null : streams;
+        });
+        if (removed[0]) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.values().forEach(streams -> streams.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    /**
+     * One open stream and the events waiting to be written to it.
+     *
+     * At most one sender drains the queue at a time, so events stay in order.
+     * The emitter is only written and completed by that sender; SseEmitter
+     * locks the whole write, so completing it from any other thread would
+     * wait on a blocked write too.
+     */
+    private final class Subscriber {
+        private final InvoiceId invoiceId;
+        private final SseEmitter emitter;
+        // Empty entries are heartbeats
+        private final Queue<Optional<InvoiceStatusChange>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Changes published before the first event was queued; guarded by this
+        private final List<InvoiceStatusChange> held = new ArrayList<>();
+        private volatile boolean started;
+        private volatile boolean writing;
+        private volatile long writeStartedAt;
+        private volatile boolean closed;
+        private volatile boolean completeOnClose;
+        // Only touched by the draining sender
+        private boolean finished;
+
+        Subscriber(InvoiceId invoiceId, SseEmitter emitter) {
+            this.invoiceId = invoiceId;
+            this.emitter = emitter;
+        }
+
+        /**
+         * Queues the first event, followed by any changes held back while it
+         * was being read.
+         */
+        void start(InvoiceStatusChange current) {
+            synchronized (this) {
+                enqueuePending(current);
+                held.forEach(this::enqueuePending);
+                held.clear();
+                started = true;
+            }
+        }
+
+        /**
+         * Queues a status event, or a heartbeat if change is null. Never blocks
+         * once the stream has started.
+         */
+        void enqueue(InvoiceStatusChange change) {
+            if (closed) {
+                return;
+            }
+            if (!started) {
+                synchronized (this) {
+                    if (!started) {
+                        // Nothing to keep a stream alive for before it has started
+                        if (change != null) {
+                            held.add(change);
+                        }
+                        return;
+                    }
+                }
+            }
+            enqueuePending(change);
+        }
+
+        private void enqueuePending(InvoiceStatusChange change) {
+            if (closed) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > config.getMaxPendingSends()) {
+                pendingCount.decrementAndGet();
+                drop(config.getMaxPendingSends() + " events were waiting to be written");
+                return;
+            }
+            pending.add(Optional.ofNullable(change));
+            scheduleDrain();
+        }
+
+        boolean isIdle() {
+            return pendingCount.get() == 0 && !writing;
+        }
+
+        boolean isStalled(long now) {
+            return writing && now - writeStartedAt > writeTimeoutNanos;
+        }
+
+        void drop(String reason) {
+            if (closed) {
+                return;
+            }
+            droppedCounter.increment();
+            log.debug("Dropping pay page event stream for invoice {}: {}", invoiceId.getValue(), reason);
+            close(true);
+        }
+
+        /**
+         * Stops the stream taking events. The sender completes the emitter if
+         * asked to, once any write in progress has returned.
+         */
+        void close(boolean complete) {
+            if (complete) {
+                completeOnClose = true;
+            }
+            closed = true;
+            unregister(this);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the emitter is completed there
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            do {
+                Optional<InvoiceStatusChange> next;
+                while (!closed && (next = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    write(next.orElse(null));
+                }
+                if (closed && !finished) {
+                    finished = true;
+                    pending.clear();
+                    if (completeOnClose) {
+                        completeQuietly();
+                    }
+                }
+                draining.set(false);
+            } while (!finished && (closed || !pending.isEmpty()) && draining.compareAndSet(false, true));
+        }
+
+        /**
+         * Writes a status event, closing the stream once the invoice is final,
+         * or a heartbeat if change is null.
+         */
+        private void write(InvoiceStatusChange change) {
+            writeStartedAt = System.nanoTime();
+            writing = true;
+            try {
+                if (change == null) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    return;
+                }
+                InvoiceStatusEvent event = new InvoiceStatusEvent(
+                        change.getInvoiceId().getValue(), change.getStatus(), change.getChangedAt());
+                emitter.send(SseEmitter.event()
+                        .name(STATUS_EVENT)
+                        .data(event, MediaType.APPLICATION_JSON));
+                if (change.isFinal()) {
+                    close(true);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the container completes the emitter
+                close(false);
+            } finally {
+                writing = false;
+            }
+        }
+
+        private void completeQuietly() {
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Failed to complete pay page event stream for invoice {}", invoiceId.getValue(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.payme.api;
+
+import com.payme.domain.Invoice;
+import com.payme.domain.InvoiceStatus;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+
+/**
+ * ETags and Cache-Control for invoice representations.
+ *
+ * An invoice's ETag changes whenever its stored state does (status, version
+ * and updatedAt), so a poller holding the current ETag gets a 304 without the
+ * body being built. SUCCEEDED and EXPIRED invoices never change again and may
+ * be cached by browsers and CDNs; open ones must be revalidated every time.
+ */
+final class InvoiceHttpCaching {
+
+    private static final Duration FINAL_MAX_AGE = Duration.ofDays(1);
+
+    private InvoiceHttpCaching() {
+    }
+
+    /**
+     * @param qualifier Extra state the representation depends on beyond the
+     *                  stored invoice, or null
+     * @return A weak ETag, since the body is a projection of the invoice
+     */
+    static String etag(Invoice invoice, String qualifier) {
+        StringBuilder tag = new StringBuilder(48)
+                .append("W/\"")
+                .append(invoice.getStatus().name())
+                .append('-')
+                .append(invoice.getVersion())
+                .append('-')
+                .append(invoice.getUpdatedAt().toEpochMilli());
+        if (qualifier != null) {
+            tag.append('-').append(qualifier);
+        }
+        return tag.append('"').toString();
+    }
+
+    static CacheControl cacheControl(Invoice invoice) {
+        if (invoice.getStatus() == InvoiceStatus.SUCCEEDED || invoice.getStatus() == InvoiceStatus.EXPIRED) {
+            return CacheControl.maxAge(FINAL_MAX_AGE).cachePublic().immutable();
+        }
+        return CacheControl.noCache();
+    }
+
+    /**
+     * Whether an If-None-Match header matches the ETag, using the weak
+     * comparison RFC 9110 specifies for If-None-Match.
+     */
+    static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String opaque = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaqueTag(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,51 @@
+package com.payme.api;
+
+import com.payme.config.MerchantApiKeyConfig;
+import com.payme.ports.HashService;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checks the API key sent in X-Api-Key against the one configured for the
+ * merchant. Keys are compared by their SHA-256 in constant time, so neither
+ * the key nor its length leaks through response timing. Unknown merchants,
+ * missing keys and wrong keys all get the same answer, so the endpoint does
+ * not reveal which merchant IDs exist.
+ */
+@Component
+public class MerchantApiKeys {
+
+    public static final String HEADER = "X-Api-Key";
+
+    private final HashService hashService;
+    private final Map<String, byte[]> keyHashes = new HashMap<>();
+
+    public MerchantApiKeys(MerchantApiKeyConfig config, HashService hashService) {
+        this.hashService = hashService;
+        config.getApiKeys().forEach((merchantId, key) -> {
+            if (key != null && !key.isBlank()) {
+                keyHashes.put(merchantId, hash(key));
+            }
+        });
+    }
+
+    /**
+     * @throws MerchantAuthenticationException unless apiKey is the merchant's key
+     */
+    public void authenticate(String merchantId, String apiKey) {
+        byte[] expected = keyHashes.get(merchantId);
+        byte[] presented = hash(apiKey == null ? "" : apiKey);
+        // Hashed even when there is nothing to compare, so both paths cost the same
+        if (expected == null || !MessageDigest.isEqual(expected, presented)) {
+            throw new MerchantAuthenticationException("A valid " + HEADER + " for the merchant is required");
+        }
+    }
+
+    private byte[] hash(String key) {
+        return hashService.sha256(key).getBytes(StandardCharsets.US_ASCII);
+    }
+}
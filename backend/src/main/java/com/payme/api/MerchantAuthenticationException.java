@@ -0,0 +1,11 @@
+package com.payme.api;
+
+/**
+ * Thrown when a request for a merchant's data does not carry that merchant's API key.
+ */
+public class MerchantAuthenticationException extends RuntimeException {
+
+    public MerchantAuthenticationException(String message) {
+        super(message);
+    }
+}
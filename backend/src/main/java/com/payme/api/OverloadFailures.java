@@ -0,0 +1,41 @@
+package com.payme.api;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+/**
+ * Tells failures caused by an overloaded database apart from everything else,
+ * so only those back a concurrency limit off.
+ */
+final class OverloadFailures {
+
+    private OverloadFailures() {
+    }
+
+    /**
+     * Walks the cause chain, since the use cases wrap what they cannot handle
+     * in a plain RuntimeException.
+     *
+     * Lock and optimistic-locking failures are transient data access failures
+     * too, but they mean contention on one invoice rather than a struggling
+     * database, so they do not count.
+     *
+     * @param failure What the admitted call threw
+     * @return Whether it timed out or could not get a connection
+     */
+    static boolean isOverload(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyFailureException) {
+                return false;
+            }
+            if (cause instanceof CannotGetJdbcConnectionException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof TransientDataAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
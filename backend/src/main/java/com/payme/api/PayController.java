@@ -6,37 +6,93 @@ import com.payme.application.GetPayPageDataUseCase;
 import com.payme.application.StartCheckoutUseCase;
 import com.payme.domain.Invoice;
 import com.payme.domain.InvoiceId;
+import com.payme.domain.exceptions.InvoiceNotFoundException;
 import com.payme.ports.Clock;
+import com.payme.ports.ConcurrencyLimiter;
+import com.payme.ports.InvoiceStatusChange;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/pay")
 public class PayController {
 
     private static final Logger log = LoggerFactory.getLogger(PayController.class);
 
+    private static final String STREAM_RETRY_AFTER_SECONDS = "5";
+
     private final GetPayPageDataUseCase getPayPageDataUseCase;
     private final StartCheckoutUseCase startCheckoutUseCase;
     private final Clock clock;
+    private final ConcurrencyLimiter checkoutLimiter;
+    private final InvoiceEventStreams eventStreams;
 
     public PayController(
             GetPayPageDataUseCase getPayPageDataUseCase,
             StartCheckoutUseCase startCheckoutUseCase,
-            Clock clock
+            Clock clock,
+            @Qualifier("checkoutLimiter") ConcurrencyLimiter checkoutLimiter,
+            InvoiceEventStreams eventStreams
     ) {
         this.getPayPageDataUseCase = getPayPageDataUseCase;
         this.startCheckoutUseCase = startCheckoutUseCase;
         this.clock = clock;
+        this.checkoutLimiter = checkoutLimiter;
+        this.eventStreams = eventStreams;
     }
 
     @GetMapping("/{invoiceId}")
-    public ResponseEntity<PayPageResponse> getPayPage(@PathVariable String invoiceId) {
+    public ResponseEntity<PayPageResponse> getPayPage(
+            @PathVariable String invoiceId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         Invoice invoice = getPayPageDataUseCase.execute(invoiceId);
+
+        // A PENDING invoice stops being payable at expiresAt without its row changing
+        boolean payable = invoice.isPayable(clock.now());
+        String etag = InvoiceHttpCaching.etag(invoice, payable ? "payable" : "closed");
+        CacheControl cacheControl = InvoiceHttpCaching.cacheControl(invoice);
+        if (InvoiceHttpCaching.notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
         PayPageResponse response = PayPageResponse.fromDomain(invoice, clock);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(response);
+    }
+
+    /**
+     * Streams the invoice's status as Server-Sent Events: the current status
+     * first, then each change, ending once the invoice is SUCCEEDED or EXPIRED.
+     * Errors are plain status codes, since the client only accepts an event stream.
+     */
+    @GetMapping(value = "/{invoiceId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStatus(@PathVariable String invoiceId) {
+        InvoiceId id = new InvoiceId(invoiceId);
+
+        Optional<SseEmitter> emitter;
+        try {
+            emitter = eventStreams.subscribe(id, () -> {
+                Invoice invoice = getPayPageDataUseCase.execute(invoiceId);
+                return new InvoiceStatusChange(invoice.getInvoiceId(), invoice.getStatus(), invoice.getUpdatedAt());
+            });
+        } catch (InvoiceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return emitter.map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, STREAM_RETRY_AFTER_SECONDS)
+                        .build());
     }
 
     @PostMapping("/{invoiceId}/checkout")
@@ -44,7 +100,22 @@ public class PayController {
         log.info("Received checkout request for invoice: {}", invoiceId);
 
         InvoiceId id = new InvoiceId(invoiceId);
-        StartCheckoutUseCase.CheckoutResult result = startCheckoutUseCase.execute(id);
+        ConcurrencyLimiter.Permit permit = checkoutLimiter.tryAcquire()
+                .orElseThrow(() -> new ServiceOverloadedException(
+                        "Too many checkouts in progress, retry later", checkoutLimiter.getRetryAfter()));
+
+        StartCheckoutUseCase.CheckoutResult result;
+        try {
+            result = startCheckoutUseCase.execute(id);
+        } catch (RuntimeException e) {
+            // Only timeouts and pool exhaustion back the limit off, not business errors
+            if (OverloadFailures.isOverload(e)) {
+                permit.markDropped();
+            }
+            throw e;
+        } finally {
+            permit.release();
+        }
 
         CheckoutResponse response = new CheckoutResponse(
                 result.getCheckoutUrl(),
@@ -0,0 +1,87 @@
+package com.payme.api;
+
+import com.payme.adapters.provider.payfast.PayFastIpValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+
+/**
+ * Rejects PayFast webhooks from addresses outside the PayFast allowlist.
+ *
+ * Runs ahead of the rest of the webhook pipeline, before the body is read,
+ * so traffic from other sources costs no hashing, parsing, signature checks
+ * or database lookups.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PayFastIpFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(PayFastIpFilter.class);
+
+    private static final String PAYFAST_WEBHOOK_PATH = "/webhooks/payfast";
+
+    /**
+     * Set on requests that passed the check, so the controller can refuse a
+     * PayFast webhook that reached it some other way.
+     */
+    static final String CHECKED_ATTRIBUTE = PayFastIpFilter.class.getName() + ".CHECKED";
+
+    // Decodes the path and strips the context path and ;parameters, the way
+    // request mapping does, so no spelling of the URL gets past the check
+    private static final UrlPathHelper PATHS = UrlPathHelper.defaultInstance;
+
+    private final PayFastIpValidator ipValidator;
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+
+    public PayFastIpFilter(PayFastIpValidator ipValidator, MeterRegistry meterRegistry) {
+        this.ipValidator = ipValidator;
+        this.acceptedCounter = Counter.builder("payme.webhooks.ip_check")
+                .tag("provider", "PAYFAST")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("payme.webhooks.ip_check")
+                .tag("provider", "PAYFAST")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !PAYFAST_WEBHOOK_PATH.equalsIgnoreCase(PATHS.getLookupPathForRequest(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String sourceIp = ClientIpAddresses.resolve(request);
+
+        if (!ipValidator.isValidPayFastIp(sourceIp)) {
+            rejectedCounter.increment();
+            log.warn("Rejected PayFast webhook from {}", sourceIp);
+
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Webhook source not allowed\"}");
+            return;
+        }
+
+        acceptedCounter.increment();
+        request.setAttribute(CHECKED_ATTRIBUTE, Boolean.TRUE);
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,20 @@
+package com.payme.api;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is shed because its path is at its concurrency limit.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
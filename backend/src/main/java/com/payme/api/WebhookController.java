@@ -1,20 +1,32 @@
 package com.payme.api;
 
 import com.payme.application.ProcessWebhookUseCase;
+import com.payme.application.WebhookInboxWorker;
+import com.payme.config.WebhookInboxConfig;
 import com.payme.domain.ProviderName;
+import com.payme.domain.WebhookEvent;
+import com.payme.domain.WebhookProcessingStatus;
 import com.payme.domain.exceptions.WebhookVerificationException;
+import com.payme.ports.ConcurrencyLimiter;
+import com.payme.ports.HashService;
+import com.payme.ports.HashedBytes;
+import com.payme.ports.PayloadTooLargeException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/webhooks")
@@ -22,33 +34,94 @@ public class WebhookController {
 
     private static final Logger log = LoggerFactory.getLogger(WebhookController.class);
 
-    private final ProcessWebhookUseCase processWebhookUseCase;
+    // An ITN is a few KB; anything much larger is not a real notification
+    private static final int MAX_BODY_BYTES = 64 * 1024;
 
-    public WebhookController(ProcessWebhookUseCase processWebhookUseCase) {
+    private final ProcessWebhookUseCase processWebhookUseCase;
+    private final WebhookInboxWorker inboxWorker;
+    private final WebhookInboxConfig inboxConfig;
+    private final HashService hashService;
+    private final ConcurrencyLimiter webhookLimiter;
+
+    public WebhookController(
+            ProcessWebhookUseCase processWebhookUseCase,
+            WebhookInboxWorker inboxWorker,
+            WebhookInboxConfig inboxConfig,
+            HashService hashService,
+            @Qualifier("webhookLimiter") ConcurrencyLimiter webhookLimiter
+    ) {
         this.processWebhookUseCase = processWebhookUseCase;
+        this.inboxWorker = inboxWorker;
+        this.inboxConfig = inboxConfig;
+        this.hashService = hashService;
+        this.webhookLimiter = webhookLimiter;
     }
 
     @PostMapping("/{provider}")
     public ResponseEntity<Map<String, String>> handleWebhook(
             @PathVariable String provider,
-            @RequestBody String rawBody,
             HttpServletRequest request
     ) {
         log.info("Received webhook for provider: {}", provider);
 
+        // Shed load before reading the body; the provider retries after Retry-After
+        Optional<ConcurrencyLimiter.Permit> permit = webhookLimiter.tryAcquire();
+        if (permit.isEmpty()) {
+            log.warn("Webhook for provider {} shed: processing capacity exhausted", provider);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(Math.max(1, webhookLimiter.getRetryAfter().toSeconds())))
+                    .body(Map.of("error", "Too many webhooks in flight, retry later"));
+        }
+
+        try {
+            return processAdmitted(provider, request, permit.get());
+        } finally {
+            permit.get().release();
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> processAdmitted(
+            String provider,
+            HttpServletRequest request,
+            ConcurrencyLimiter.Permit permit
+    ) {
         try {
             // Parse provider name
             ProviderName providerName = ProviderName.valueOf(provider.toUpperCase());
+            if (providerName == ProviderName.PAYFAST && request.getAttribute(PayFastIpFilter.CHECKED_ATTRIBUTE) == null) {
+                // A URL spelling the IP filter did not recognise
+                log.warn("PayFast webhook at {} bypassed the source IP check", request.getRequestURI());
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Webhook source not allowed"));
+            }
 
             // Extract headers and add source IP
             Map<String, String> headers = extractHeaders(request);
-            String sourceIp = getClientIpAddress(request);
+            String sourceIp = ClientIpAddresses.resolve(request);
             headers.put("X-Source-IP", sourceIp);
 
             log.debug("Webhook source IP: {}", sourceIp);
 
+            // Read the raw body, hashing it as it streams in
+            if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+                return payloadTooLarge();
+            }
+            HashedBytes payload = hashService.sha256(request.getInputStream(), request.getContentLength(), MAX_BODY_BYTES);
+
+            if (inboxConfig.isEnabled()) {
+                // Store the event and ack; the worker pool applies the state transitions
+                WebhookEvent accepted = processWebhookUseCase.acceptWebhook(providerName, payload, headers);
+                if (accepted.getProcessingStatus() == WebhookProcessingStatus.RECEIVED) {
+                    inboxWorker.submit(accepted.getId());
+                }
+
+                log.info("Webhook accepted into inbox: {}", accepted.getId().getValue());
+                return ResponseEntity.ok(Map.of("status", "accepted"));
+            }
+
             // Process webhook
-            processWebhookUseCase.processWebhook(providerName, rawBody, headers);
+            processWebhookUseCase.processWebhook(providerName, payload, headers);
 
             log.info("Webhook processed successfully");
             return ResponseEntity.ok(Map.of("status", "success"));
@@ -59,13 +132,35 @@ public class WebhookController {
             log.error("Webhook verification failed", e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", "Webhook verification failed: " + e.getMessage()));
+        } catch (PayloadTooLargeException e) {
+            return payloadTooLarge();
+        } catch (CannotAcquireLockException e) {
+            // Another webhook for the invoice (or its stripe) is taking too long
+            log.warn("Webhook could not get its invoice lock: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Invoice busy, retry later"));
+        } catch (OptimisticLockingFailureException e) {
+            // Contention with another instance, not overload; the provider will redeliver
+            log.warn("Webhook conflicted with a concurrent update: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Concurrent update, please retry"));
         } catch (Exception e) {
             log.error("Failed to process webhook", e);
+            if (OverloadFailures.isOverload(e)) {
+                permit.markDropped();
+            }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Internal server error"));
         }
     }
 
+    private static ResponseEntity<Map<String, String>> payloadTooLarge() {
+        log.warn("Rejected webhook body larger than {} bytes", MAX_BODY_BYTES);
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("error", "Webhook body exceeds " + MAX_BODY_BYTES + " bytes"));
+    }
+
     private Map<String, String> extractHeaders(HttpServletRequest request) {
         Map<String, String> headers = new HashMap<>();
         Enumeration<String> headerNames = request.getHeaderNames();
@@ -80,26 +175,4 @@ public class WebhookController {
 
         return headers;
     }
-
-    /**
-     * Extracts the client IP address from the request.
-     * Considers X-Forwarded-For header for proxied requests.
-     *
-     * @param request HTTP request
-     * @return Client IP address
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            // X-Forwarded-For can contain multiple IPs, take the first one
-            return xForwardedFor.split(",")[0].trim();
-        }
-
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-
-        return request.getRemoteAddr();
-    }
 }
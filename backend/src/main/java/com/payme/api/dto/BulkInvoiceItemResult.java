@@ -0,0 +1,31 @@
+package com.payme.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.payme.application.BulkCreateInvoicesUseCase;
+import com.payme.application.BulkCreateInvoicesUseCase.Result;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of one bulk item. index is the item's position in the request,
+ * counting from 0 and, for NDJSON, skipping blank lines.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkInvoiceItemResult {
+
+    private int index;
+    private BulkCreateInvoicesUseCase.Status status;
+    private InvoiceResponse invoice;
+    private String error;
+
+    public static BulkInvoiceItemResult from(int index, Result result, String baseUrl) {
+        InvoiceResponse invoice = result.getInvoice() == null
+                ? null
+                : InvoiceResponse.fromDomain(result.getInvoice(), baseUrl);
+        return new BulkInvoiceItemResult(index, result.getStatus(), invoice, result.getError());
+    }
+}
@@ -0,0 +1,18 @@
+package com.payme.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkInvoiceResponse {
+
+    private int created;
+    private int rejected;
+    private int failed;
+    private List<BulkInvoiceItemResult> results;
+}
@@ -0,0 +1,18 @@
+package com.payme.api.dto;
+
+import com.payme.domain.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceStatusEvent {
+
+    private String invoiceId;
+    private InvoiceStatus status;
+    private Instant changedAt;
+}
@@ -0,0 +1,298 @@
+package com.payme.application;
+
+import com.payme.config.BulkInvoiceConfig;
+import com.payme.config.WorkerThreads;
+import com.payme.domain.*;
+import com.payme.ports.Clock;
+import com.payme.ports.InvoiceExpiryScheduler;
+import com.payme.ports.InvoiceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Creates many invoices at once, for merchants' billing runs.
+ *
+ * Items are read and checked in parallel on a small worker pool, each getting
+ * its ID there too, then the valid ones are stored in chunks, each chunk in
+ * its own transaction as one batched insert. A rejected item does not affect
+ * the others. If a chunk fails to store it is split in half and each half
+ * retried, down to single items, so only the items that cannot be stored
+ * fail and the caller can resend just those.
+ */
+@Service
+public class BulkCreateInvoicesUseCase {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkCreateInvoicesUseCase.class);
+
+    // Column limits of the invoices table, checked up front so one oversized
+    // item is rejected on its own instead of failing the insert of its chunk
+    private static final int MAX_MERCHANT_ID_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+    private static final int AMOUNT_SCALE = 2;
+    private static final int MAX_AMOUNT_INTEGER_DIGITS = 17;
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceExpiryScheduler expiryScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final BulkInvoiceConfig config;
+    private final ThreadPoolExecutor validators;
+    private final Counter createdCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    public BulkCreateInvoicesUseCase(
+            InvoiceRepository invoiceRepository,
+            InvoiceExpiryScheduler expiryScheduler,
+            TransactionTemplate transactionTemplate,
+            Clock clock,
+            BulkInvoiceConfig config,
+            MeterRegistry meterRegistry,
+            Environment environment
+    ) {
+        this.invoiceRepository = invoiceRepository;
+        this.expiryScheduler = expiryScheduler;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.config = config;
+
+        // Shared by concurrent bulk requests; when it is saturated the request
+        // thread checks its own slice, which slows the caller instead of failing it
+        this.validators = new ThreadPoolExecutor(
+                config.getValidationWorkers(),
+                config.getValidationWorkers(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getValidationQueueCapacity()),
+                WorkerThreads.factory("invoice-bulk-", environment),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+
+        this.createdCounter = Counter.builder("payme.invoices.bulk.created")
+                .description("Invoices stored by bulk creation")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("payme.invoices.bulk.rejected")
+                .description("Bulk items rejected as invalid")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payme.invoices.bulk.failed")
+                .description("Valid bulk items that could not be stored")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates an invoice for every valid item.
+     *
+     * @param items Suppliers of the items, called on the validation workers;
+     *              one may throw IllegalArgumentException to reject its item
+     * @return One result per item, in the order given
+     */
+    public List<Result> execute(List<Supplier<NewInvoice>> items) {
+        Instant now = clock.now();
+        Result[] results = new Result[items.size()];
+        prepare(items, now, results);
+
+        int chunkSize = config.getChunkSize();
+        List<Invoice> chunk = new ArrayList<>(Math.min(chunkSize, items.size()));
+        List<Integer> positions = new ArrayList<>(Math.min(chunkSize, items.size()));
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].getStatus() != Status.CREATED) {
+                continue;
+            }
+            chunk.add(results[i].getInvoice());
+            positions.add(i);
+            if (chunk.size() == chunkSize) {
+                store(chunk, positions, results);
+                chunk.clear();
+                positions.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            store(chunk, positions, results);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Builds the invoices, splitting the items into one contiguous slice per
+     * worker. Results are filled in by position, so no slice touches another's.
+     */
+    private void prepare(List<Supplier<NewInvoice>> items, Instant now, Result[] results) {
+        int slices = Math.max(1, Math.min(config.getValidationWorkers(), items.size()));
+        int sliceSize = (items.size() + slices - 1) / slices;
+        List<CompletableFuture<Void>> pending = new ArrayList<>(slices);
+        for (int start = 0; start < items.size(); start += sliceSize) {
+            int from = start;
+            int to = Math.min(items.size(), start + sliceSize);
+            pending.add(CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    results[i] = prepare(items.get(i), now);
+                }
+            }, validators));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private Result prepare(Supplier<NewInvoice> item, Instant now) {
+        try {
+            NewInvoice newInvoice = item.get();
+            checkColumnLimits(newInvoice);
+            Invoice invoice = new Invoice(
+                    InvoiceId.generate(),
+                    new MerchantId(newInvoice.getMerchantId()),
+                    new Money(newInvoice.getAmount(), newInvoice.getCurrency()),
+                    newInvoice.getDescription(),
+                    InvoiceStatus.CREATED,
+                    now.plus(Duration.ofHours(newInvoice.getExpiryHours())),
+                    now,
+                    now
+            );
+            return new Result(Status.CREATED, invoice, null);
+        } catch (IllegalArgumentException e) {
+            rejectedCounter.increment();
+            return new Result(Status.REJECTED, null, e.getMessage());
+        }
+    }
+
+    private static void checkColumnLimits(NewInvoice newInvoice) {
+        if (newInvoice.getMerchantId() != null && newInvoice.getMerchantId().length() > MAX_MERCHANT_ID_LENGTH) {
+            throw new IllegalArgumentException("Merchant ID cannot exceed " + MAX_MERCHANT_ID_LENGTH + " characters");
+        }
+        if (newInvoice.getDescription() != null && newInvoice.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Description cannot exceed " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+        BigDecimal amount = newInvoice.getAmount();
+        if (amount != null) {
+            if (amount.stripTrailingZeros().scale() > AMOUNT_SCALE) {
+                throw new IllegalArgumentException("Amount cannot have more than " + AMOUNT_SCALE + " decimal places");
+            }
+            if (amount.precision() - amount.scale() > MAX_AMOUNT_INTEGER_DIGITS) {
+                throw new IllegalArgumentException("Amount cannot exceed " + MAX_AMOUNT_INTEGER_DIGITS + " digits before the decimal point");
+            }
+        }
+    }
+
+    /**
+     * Stores the chunk in one transaction. If that fails, the chunk is split
+     * in half and each half stored on its own, so a bad item only takes
+     * itself down; a clean chunk still costs a single batch.
+     */
+    private void store(List<Invoice> chunk, List<Integer> positions, Result[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> invoiceRepository.insertAll(chunk));
+        } catch (RuntimeException e) {
+            if (chunk.size() > 1) {
+                log.warn("Failed to store a chunk of {} bulk invoices, retrying it in halves: {}",
+                        chunk.size(), e.getMessage());
+                int half = chunk.size() / 2;
+                store(chunk.subList(0, half), positions.subList(0, half), results);
+                store(chunk.subList(half, chunk.size()), positions.subList(half, positions.size()), results);
+                return;
+            }
+            log.error("Failed to store bulk invoice {}", chunk.get(0).getInvoiceId().getValue(), e);
+            failedCounter.increment();
+            results[positions.get(0)] = new Result(Status.FAILED, null, "Could not be stored, please retry");
+            return;
+        }
+
+        createdCounter.increment(chunk.size());
+        for (Invoice invoice : chunk) {
+            expiryScheduler.schedule(invoice.getInvoiceId(), invoice.getExpiresAt());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        validators.shutdown();
+        if (!validators.awaitTermination(10, TimeUnit.SECONDS)) {
+            validators.shutdownNow();
+        }
+    }
+
+    public enum Status {
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+
+    /**
+     * One invoice to create, as given by the caller.
+     */
+    public static class NewInvoice {
+        private final String merchantId;
+        private final BigDecimal amount;
+        private final Currency currency;
+        private final String description;
+        private final long expiryHours;
+
+        public NewInvoice(String merchantId, BigDecimal amount, Currency currency, String description, long expiryHours) {
+            this.merchantId = merchantId;
+            this.amount = amount;
+            this.currency = currency;
+            this.description = description;
+            this.expiryHours = expiryHours;
+        }
+
+        public String getMerchantId() {
+            return merchantId;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public Currency getCurrency() {
+            return currency;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public long getExpiryHours() {
+            return expiryHours;
+        }
+    }
+
+    /**
+     * What happened to one item: the stored invoice if CREATED, otherwise why not.
+     */
+    public static class Result {
+        private final Status status;
+        private final Invoice invoice;
+        private final String error;
+
+        Result(Status status, Invoice invoice, String error) {
+            this.status = status;
+            this.invoice = invoice;
+            this.error = error;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Invoice getInvoice() {
+            return invoice;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
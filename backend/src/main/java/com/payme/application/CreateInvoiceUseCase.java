@@ -2,6 +2,7 @@ package com.payme.application;
 
 import com.payme.domain.*;
 import com.payme.ports.Clock;
+import com.payme.ports.InvoiceExpiryScheduler;
 import com.payme.ports.InvoiceRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,10 +14,12 @@ import java.time.Duration;
 public class CreateInvoiceUseCase {
 
     private final InvoiceRepository invoiceRepository;
+    private final InvoiceExpiryScheduler expiryScheduler;
     private final Clock clock;
 
-    public CreateInvoiceUseCase(InvoiceRepository invoiceRepository, Clock clock) {
+    public CreateInvoiceUseCase(InvoiceRepository invoiceRepository, InvoiceExpiryScheduler expiryScheduler, Clock clock) {
         this.invoiceRepository = invoiceRepository;
+        this.expiryScheduler = expiryScheduler;
         this.clock = clock;
     }
 
@@ -42,6 +45,9 @@ public class CreateInvoiceUseCase {
                 now
         );
 
-        return invoiceRepository.save(invoice);
+        var created = invoiceRepository.insert(invoice);
+        // A timer left behind by a rollback fires, finds no invoice and is dropped
+        expiryScheduler.schedule(created.getInvoiceId(), expiresAt);
+        return created;
     }
 }
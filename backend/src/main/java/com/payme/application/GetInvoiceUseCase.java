@@ -2,7 +2,6 @@ package com.payme.application;
 
 import com.payme.domain.Invoice;
 import com.payme.domain.InvoiceId;
-import com.payme.domain.InvoiceStatus;
 import com.payme.domain.exceptions.InvoiceNotFoundException;
 import com.payme.ports.Clock;
 import com.payme.ports.InvoiceRepository;
@@ -20,20 +19,17 @@ public class GetInvoiceUseCase {
         this.clock = clock;
     }
 
-    @Transactional
+    /**
+     * Read-only, so it can be served by a replica or the invoice cache. An
+     * invoice that has lapsed is reported as EXPIRED without writing it back;
+     * persisting that is left to the expiry paths.
+     */
+    @Transactional(readOnly = true)
     public Invoice execute(String invoiceIdStr) {
         var invoiceId = new InvoiceId(invoiceIdStr);
         var invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new InvoiceNotFoundException(invoiceId));
 
-        var now = clock.now();
-        
-        // Auto-expire if needed
-        if (invoice.getStatus() == InvoiceStatus.CREATED && invoice.isExpired(now)) {
-            invoice.markAsExpired(now);
-            invoice = invoiceRepository.save(invoice);
-        }
-
-        return invoice;
+        return invoice.asOf(clock.now());
     }
 }
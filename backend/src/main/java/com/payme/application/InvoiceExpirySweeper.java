@@ -0,0 +1,126 @@
+package com.payme.application;
+
+import com.payme.config.InvoiceExpiryConfig;
+import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import com.payme.ports.Clock;
+import com.payme.ports.InvoiceExpiryBacklog;
+import com.payme.ports.InvoiceRepository;
+import com.payme.ports.InvoiceStatusChange;
+import com.payme.ports.InvoiceStatusNotifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves overdue invoices to EXPIRED in the background, so the stored status
+ * is right without anyone opening the pay page.
+ *
+ * Each sweep expires invoices in bounded batches, each in its own short
+ * transaction, and stops at the configured number of batches so a large
+ * backlog is worked off over several sweeps rather than in one long burst.
+ * Rows locked by another node's sweep are skipped, so every node can run it.
+ * PENDING invoices get a grace period, since a payment may still be
+ * completing when the invoice lapses.
+ */
+@Component
+public class InvoiceExpirySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceExpirySweeper.class);
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceStatusNotifier statusNotifier;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final InvoiceExpiryConfig config;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter expiredCounter;
+
+    public InvoiceExpirySweeper(
+            InvoiceRepository invoiceRepository,
+            InvoiceStatusNotifier statusNotifier,
+            TransactionTemplate transactionTemplate,
+            Clock clock,
+            InvoiceExpiryConfig config,
+            MeterRegistry meterRegistry
+    ) {
+        this.invoiceRepository = invoiceRepository;
+        this.statusNotifier = statusNotifier;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.config = config;
+
+        Gauge.builder("payme.invoices.expiry.backlog", backlog, AtomicLong::get)
+                .description("Overdue invoices still waiting to be expired at the end of the last sweep")
+                .register(meterRegistry);
+        Gauge.builder("payme.invoices.expiry.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Seconds the longest overdue invoice has been waiting to be expired")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("payme.invoices.expired")
+                .description("Invoices expired by the sweeper")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payme.invoices.expiry.sweep-interval:PT30S}")
+    public void sweep() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        int total = 0;
+        try {
+            for (int batch = 0; batch < config.getMaxBatchesPerSweep(); batch++) {
+                int expired = expireBatch();
+                total += expired;
+                if (expired < config.getBatchSize()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Invoice expiry sweep failed after expiring {} invoices", total, e);
+        } finally {
+            if (total > 0) {
+                log.info("Expired {} overdue invoices", total);
+            }
+            recordBacklog();
+        }
+    }
+
+    private int expireBatch() {
+        Instant now = clock.now();
+        List<InvoiceId> expired = transactionTemplate.execute(status -> {
+            List<InvoiceId> ids = invoiceRepository.expireDue(
+                    now, now.minus(config.getPendingGrace()), now, config.getBatchSize());
+            ids.forEach(id -> statusNotifier.statusChanged(new InvoiceStatusChange(id, InvoiceStatus.EXPIRED, now)));
+            return ids;
+        });
+        expiredCounter.increment(expired.size());
+        return expired.size();
+    }
+
+    private void recordBacklog() {
+        try {
+            Instant now = clock.now();
+            InvoiceExpiryBacklog measured = invoiceRepository.measureExpiryBacklog(
+                    now, now.minus(config.getPendingGrace()), config.getBacklogSampleLimit());
+            backlog.set(measured.getDueCount());
+            lagMillis.set(measured.getOldestExpiresAt() == null
+                    ? 0
+                    : Duration.between(measured.getOldestExpiresAt(), now).toMillis());
+        } catch (RuntimeException e) {
+            log.warn("Failed to measure invoice expiry backlog", e);
+        }
+    }
+}
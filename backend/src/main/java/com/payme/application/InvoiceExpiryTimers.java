@@ -0,0 +1,190 @@
+package com.payme.application;
+
+import com.payme.config.ExpiryTimerConfig;
+import com.payme.config.InvoiceExpiryConfig;
+import com.payme.config.WorkerThreads;
+import com.payme.domain.Invoice;
+import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import com.payme.ports.Clock;
+import com.payme.ports.InvoiceExpiryScheduler;
+import com.payme.ports.InvoiceRepository;
+import com.payme.ports.InvoiceStatusChange;
+import com.payme.ports.InvoiceStatusNotifier;
+import com.payme.ports.OpenInvoiceExpiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires invoices when their in-memory expiry timer fires, so the stored
+ * status flips close to expiresAt and pay page streams are told right away.
+ *
+ * Timers are set when an invoice is created, cancelled when it is paid, and
+ * rebuilt from the open invoices in the database on startup. A timer is only
+ * a hint: the invoice is re-read and the domain rules decide, and anything
+ * the timers miss (a full wheel, a restart, a busy worker pool) is still
+ * caught by {@link InvoiceExpirySweeper}. PENDING invoices get the same grace
+ * period as in the sweeper, by setting their timer again for its end.
+ */
+@Component
+public class InvoiceExpiryTimers {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceExpiryTimers.class);
+
+    private final InvoiceExpiryScheduler scheduler;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceStatusNotifier statusNotifier;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final ExpiryTimerConfig timerConfig;
+    private final InvoiceExpiryConfig expiryConfig;
+    private final ThreadPoolExecutor executor;
+    private final Counter expiredCounter;
+    private final Counter droppedCounter;
+
+    public InvoiceExpiryTimers(
+            InvoiceExpiryScheduler scheduler,
+            InvoiceRepository invoiceRepository,
+            InvoiceStatusNotifier statusNotifier,
+            TransactionTemplate transactionTemplate,
+            Clock clock,
+            ExpiryTimerConfig timerConfig,
+            InvoiceExpiryConfig expiryConfig,
+            MeterRegistry meterRegistry,
+            Environment environment
+    ) {
+        this.scheduler = scheduler;
+        this.invoiceRepository = invoiceRepository;
+        this.statusNotifier = statusNotifier;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.timerConfig = timerConfig;
+        this.expiryConfig = expiryConfig;
+
+        this.executor = new ThreadPoolExecutor(
+                timerConfig.getWorkers(),
+                timerConfig.getWorkers(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(timerConfig.getQueueCapacity()),
+                WorkerThreads.factory("invoice-expiry-", environment),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.expiredCounter = Counter.builder("payme.invoices.expiry.timers.expired")
+                .description("Invoices expired when their timer fired")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("payme.invoices.expiry.timers.dropped")
+                .description("Fired timers dropped because the worker queue was full; the sweeper picks these up")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads timers for every open invoice, oldest expiry first, until the
+     * scheduler is full. Runs on a worker so startup is not held up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!timerConfig.isEnabled()) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                int loaded = 0;
+                OpenInvoiceExpiry last = null;
+                while (true) {
+                    List<OpenInvoiceExpiry> page = invoiceRepository.findOpenExpiries(last, timerConfig.getRebuildPageSize());
+                    for (OpenInvoiceExpiry open : page) {
+                        if (!scheduler.schedule(open.getInvoiceId(), open.getExpiresAt())) {
+                            log.warn("Expiry timers full after loading {} open invoices; the rest are left to the sweeper", loaded);
+                            return;
+                        }
+                        loaded++;
+                    }
+                    if (page.size() < timerConfig.getRebuildPageSize()) {
+                        break;
+                    }
+                    last = page.get(page.size() - 1);
+                }
+                log.info("Loaded expiry timers for {} open invoices", loaded);
+            } catch (RuntimeException e) {
+                log.error("Failed to rebuild invoice expiry timers; the sweeper still covers them", e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${payme.invoices.expiry.timers.tick:PT0.1S}")
+    public void tick() {
+        if (!timerConfig.isEnabled()) {
+            return;
+        }
+        for (InvoiceId invoiceId : scheduler.pollDue(clock.now())) {
+            try {
+                executor.execute(() -> expire(invoiceId));
+            } catch (RejectedExecutionException e) {
+                droppedCounter.increment();
+            }
+        }
+    }
+
+    private void expire(InvoiceId invoiceId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Invoice invoice = invoiceRepository.findById(invoiceId).orElse(null);
+                if (invoice == null) {
+                    return;
+                }
+
+                Instant now = clock.now();
+                InvoiceStatus loadedStatus = invoice.getStatus();
+                if (loadedStatus == InvoiceStatus.PENDING) {
+                    Instant graceEnds = invoice.getExpiresAt().plus(expiryConfig.getPendingGrace());
+                    if (now.isBefore(graceEnds)) {
+                        scheduler.schedule(invoiceId, graceEnds);
+                        return;
+                    }
+                } else if (loadedStatus != InvoiceStatus.CREATED) {
+                    return;
+                } else if (!invoice.isExpired(now)) {
+                    // Fired early, e.g. the clock stepped back; re-arm rather than wait for the sweeper
+                    scheduler.schedule(invoiceId, invoice.getExpiresAt());
+                    return;
+                }
+
+                invoice.markAsExpired(now);
+                boolean applied = invoiceRepository.compareAndSetStatus(
+                        invoiceId, EnumSet.of(loadedStatus), InvoiceStatus.EXPIRED, now);
+                if (applied) {
+                    expiredCounter.increment();
+                    statusNotifier.statusChanged(new InvoiceStatusChange(invoiceId, InvoiceStatus.EXPIRED, now));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to expire invoice {} on its timer; the sweeper will retry", invoiceId.getValue(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
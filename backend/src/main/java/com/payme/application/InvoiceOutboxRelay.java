@@ -0,0 +1,121 @@
+package com.payme.application;
+
+import com.payme.config.InvoiceOutboxConfig;
+import com.payme.ports.Clock;
+import com.payme.ports.InvoiceEvent;
+import com.payme.ports.InvoiceEventBus;
+import com.payme.ports.InvoiceOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the invoice outbox to the in-process event bus.
+ *
+ * Each batch is read, published and deleted in one transaction that holds
+ * the relay lock, so only one node relays at a time and events go out in
+ * outbox order. Rows are deleted only after every listener has handled them;
+ * if publishing fails or times out the transaction rolls back and the batch
+ * is published again on the next poll, which makes delivery at least once.
+ */
+@Component
+public class InvoiceOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceOutboxRelay.class);
+
+    private final InvoiceOutbox outbox;
+    private final InvoiceEventBus eventBus;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final InvoiceOutboxConfig config;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter relayedCounter;
+    private final Counter failedCounter;
+
+    public InvoiceOutboxRelay(
+            InvoiceOutbox outbox,
+            InvoiceEventBus eventBus,
+            TransactionTemplate transactionTemplate,
+            Clock clock,
+            InvoiceOutboxConfig config,
+            MeterRegistry meterRegistry
+    ) {
+        this.outbox = outbox;
+        this.eventBus = eventBus;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.config = config;
+
+        Gauge.builder("payme.events.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Seconds between the oldest event of the last batch occurring and it being relayed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.relayedCounter = Counter.builder("payme.events.outbox.relayed")
+                .description("Outbox events published and deleted")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payme.events.outbox.failed")
+                .description("Outbox batches rolled back to be published again")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payme.events.outbox.poll-interval:PT0.2S}")
+    public void relay() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        for (int batch = 0; batch < config.getMaxBatchesPerPoll(); batch++) {
+            int relayed;
+            try {
+                relayed = relayBatch();
+            } catch (RuntimeException e) {
+                log.error("Failed to relay invoice outbox batch", e);
+                return;
+            }
+            if (relayed < config.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Events relayed, or 0 if there were none, another node holds the
+     *         relay lock, or publishing failed
+     */
+    private int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            if (!outbox.tryLockRelay()) {
+                return 0;
+            }
+            List<InvoiceEvent> events = outbox.findOldest(config.getBatchSize());
+            if (events.isEmpty()) {
+                lagMillis.set(0);
+                return 0;
+            }
+
+            lagMillis.set(Math.max(0, Duration.between(events.get(0).getOccurredAt(), clock.now()).toMillis()));
+            if (!eventBus.publish(events, config.getDeliveryTimeout())) {
+                status.setRollbackOnly();
+                failedCounter.increment();
+                log.warn("Invoice events {} to {} were not all delivered; they will be published again",
+                        events.get(0).getSequence(), events.get(events.size() - 1).getSequence());
+                return 0;
+            }
+
+            outbox.delete(events);
+            return events.size();
+        });
+        int count = relayed == null ? 0 : relayed;
+        relayedCounter.increment(count);
+        return count;
+    }
+}
@@ -0,0 +1,54 @@
+package com.payme.application;
+
+import com.payme.domain.Invoice;
+import com.payme.ports.InvoiceCursor;
+import com.payme.ports.InvoiceListQuery;
+import com.payme.ports.InvoiceRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Service
+public class ListInvoicesUseCase {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final InvoiceRepository invoiceRepository;
+
+    public ListInvoicesUseCase(InvoiceRepository invoiceRepository) {
+        this.invoiceRepository = invoiceRepository;
+    }
+
+    /**
+     * Streams one page of a merchant's invoices, newest first, to the consumer.
+     * Read-only, so it can be served by a replica. Statuses are as stored; an
+     * overdue invoice shows as EXPIRED once the expiry timers or sweep get to it.
+     *
+     * @param limit Invoices on the page, between 1 and {@link #MAX_LIMIT}
+     * @return Where the next page starts, or empty if this was the last one
+     */
+    @Transactional(readOnly = true)
+    public Optional<InvoiceCursor> execute(InvoiceListQuery query, int limit, Consumer<Invoice> consumer) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+
+        // One extra row says whether there is a next page without a count
+        int[] seen = new int[1];
+        Invoice[] last = new Invoice[1];
+        invoiceRepository.findByMerchant(query, limit + 1, invoice -> {
+            if (++seen[0] <= limit) {
+                consumer.accept(invoice);
+                last[0] = invoice;
+            }
+        });
+
+        if (seen[0] <= limit) {
+            return Optional.empty();
+        }
+        return Optional.of(new InvoiceCursor(last[0].getCreatedAt(), last[0].getInvoiceId()));
+    }
+}
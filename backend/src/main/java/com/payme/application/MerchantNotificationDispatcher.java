@@ -0,0 +1,275 @@
+package com.payme.application;
+
+import com.payme.config.MerchantNotificationConfig;
+import com.payme.config.WorkerThreads;
+import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import com.payme.ports.Clock;
+import com.payme.ports.InvoiceEvent;
+import com.payme.ports.InvoiceEventListener;
+import com.payme.ports.InvoiceEventType;
+import com.payme.ports.MerchantCallbackClient;
+import com.payme.ports.MerchantNotification;
+import com.payme.ports.MerchantNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tells merchants when their invoices are SUCCEEDED, FAILED or EXPIRED.
+ *
+ * Invoice status events from the event bus are coalesced to the latest per
+ * invoice and queued in the merchant_notifications table, so a notification
+ * survives restarts and a status that changes again before delivery is sent
+ * once, as its newest value. A poller claims due notifications and posts
+ * them asynchronously, with a cap on requests in flight per merchant and in
+ * total, so a slow or failing merchant only delays its own notifications.
+ * Failed attempts are retried with exponential backoff and jitter until the
+ * attempt limit, then abandoned with the last error kept on the row.
+ */
+@Component
+public class MerchantNotificationDispatcher implements InvoiceEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MerchantNotificationDispatcher.class);
+
+    private static final Set<String> NOTIFIED_STATUSES = Set.of(
+            InvoiceStatus.SUCCEEDED.name(), InvoiceStatus.FAILED.name(), InvoiceStatus.EXPIRED.name());
+
+    private final MerchantNotificationRepository repository;
+    private final MerchantCallbackClient callbackClient;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final MerchantNotificationConfig config;
+    private final Map<String, Semaphore> merchantPermits = new ConcurrentHashMap<>();
+    private final Set<InvoiceId> inFlightInvoices = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ThreadPoolExecutor completions;
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+    private final Counter abandonedCounter;
+
+    public MerchantNotificationDispatcher(
+            MerchantNotificationRepository repository,
+            MerchantCallbackClient callbackClient,
+            TransactionTemplate transactionTemplate,
+            Clock clock,
+            MerchantNotificationConfig config,
+            MeterRegistry meterRegistry,
+            Environment environment
+    ) {
+        this.repository = repository;
+        this.callbackClient = callbackClient;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.config = config;
+
+        // Holds at most one task per request in flight, so it never rejects
+        this.completions = new ThreadPoolExecutor(
+                config.getWorkers(),
+                config.getWorkers(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getMaxInFlight())),
+                WorkerThreads.factory("merchant-notifications-", environment),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("payme.notifications.in_flight", inFlight, AtomicInteger::get)
+                .description("Merchant notifications being sent by this node")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("payme.notifications.delivered")
+                .description("Merchant notifications acknowledged with a 2xx response")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payme.notifications.failed")
+                .description("Merchant notification attempts that failed and were scheduled again")
+                .register(meterRegistry);
+        this.abandonedCounter = Counter.builder("payme.notifications.abandoned")
+                .description("Merchant notifications given up on after the last attempt")
+                .register(meterRegistry);
+
+        log.info("MerchantNotificationDispatcher initialized for {} merchant endpoints (enabled: {})",
+                config.getEndpoints().size(), config.isEnabled());
+    }
+
+    /**
+     * Queues notifications for the invoice events in the batch. Runs on the
+     * event bus; a failure here fails the publish, so the batch comes again.
+     */
+    @Override
+    public void onEvents(List<InvoiceEvent> events) {
+        if (!config.isEnabled() || config.getEndpoints().isEmpty()) {
+            return;
+        }
+
+        // Latest notified status per invoice; the queue keeps the newest anyway
+        Map<InvoiceId, InvoiceEvent> latest = new LinkedHashMap<>();
+        for (InvoiceEvent event : events) {
+            if (event.getType() == InvoiceEventType.INVOICE_STATUS_CHANGED
+                    && NOTIFIED_STATUSES.contains(event.getStatus())) {
+                latest.merge(event.getInvoiceId(), event,
+                        (current, candidate) -> candidate.getSequence() > current.getSequence() ? candidate : current);
+            }
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        List<InvoiceEvent> coalesced = new ArrayList<>(latest.values());
+        transactionTemplate.executeWithoutResult(status ->
+                repository.enqueue(coalesced, config.getEndpoints().keySet(), clock.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${payme.notifications.poll-interval:PT0.5S}")
+    public void dispatch() {
+        if (!config.isEnabled() || config.getEndpoints().isEmpty()) {
+            return;
+        }
+
+        int room = Math.min(config.getBatchSize(), config.getMaxInFlight() - inFlight.get());
+        if (room <= 0) {
+            return;
+        }
+
+        Instant now = clock.now();
+        List<MerchantNotification> due;
+        try {
+            due = transactionTemplate.execute(status ->
+                    repository.claimDue(now, now.plus(config.getLease()), room));
+        } catch (RuntimeException e) {
+            log.error("Failed to claim due merchant notifications", e);
+            return;
+        }
+        if (due == null) {
+            return;
+        }
+
+        for (MerchantNotification notification : due) {
+            send(notification, now);
+        }
+    }
+
+    private void send(MerchantNotification notification, Instant now) {
+        URI endpoint = config.getEndpoints().get(notification.getMerchantId().getValue());
+        if (endpoint == null) {
+            // Endpoint removed from config since it was queued
+            reschedule(notification, notification.getAttempts(), null, "No endpoint configured");
+            return;
+        }
+
+        Semaphore permits = merchantPermits.computeIfAbsent(
+                notification.getMerchantId().getValue(), id -> new Semaphore(config.getMaxInFlightPerMerchant()));
+        if (!permits.tryAcquire()) {
+            reschedule(notification, notification.getAttempts(), now.plus(config.getMerchantBusyDelay()), null);
+            return;
+        }
+        // An older notification for the invoice is still out; send this one after it
+        if (!inFlightInvoices.add(notification.getInvoiceId())) {
+            permits.release();
+            reschedule(notification, notification.getAttempts(), now.plus(config.getMerchantBusyDelay()), null);
+            return;
+        }
+
+        inFlight.incrementAndGet();
+        CompletableFuture<Integer> response;
+        try {
+            response = callbackClient.send(endpoint, notification);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenCompleteAsync((statusCode, error) -> {
+            try {
+                completed(notification, statusCode, error);
+            } finally {
+                inFlightInvoices.remove(notification.getInvoiceId());
+                permits.release();
+                inFlight.decrementAndGet();
+            }
+        }, completions);
+    }
+
+    private void completed(MerchantNotification notification, Integer statusCode, Throwable error) {
+        Instant now = clock.now();
+        if (error == null && statusCode >= 200 && statusCode < 300) {
+            try {
+                repository.markDelivered(notification, now);
+                deliveredCounter.increment();
+            } catch (RuntimeException e) {
+                // The lease runs out and it is sent again
+                log.error("Failed to mark notification for invoice {} delivered",
+                        notification.getInvoiceId().getValue(), e);
+            }
+            return;
+        }
+
+        String reason = error != null
+                ? error.getClass().getSimpleName() + ": " + error.getMessage()
+                : "HTTP " + statusCode;
+        int attempts = notification.getAttempts() + 1;
+        if (attempts >= config.getMaxAttempts()) {
+            abandonedCounter.increment();
+            log.warn("Giving up notifying merchant {} about invoice {} after {} attempts: {}",
+                    notification.getMerchantId().getValue(), notification.getInvoiceId().getValue(), attempts, reason);
+            reschedule(notification, attempts, null, reason);
+            return;
+        }
+
+        failedCounter.increment();
+        log.debug("Notifying merchant {} about invoice {} failed (attempt {}): {}",
+                notification.getMerchantId().getValue(), notification.getInvoiceId().getValue(), attempts, reason);
+        reschedule(notification, attempts, now.plus(backoff(attempts)), reason);
+    }
+
+    /**
+     * Exponential backoff with equal jitter: at least half the exponential
+     * delay, so retries spread out without ever coming back too early.
+     */
+    private Duration backoff(int attempts) {
+        long initial = config.getInitialBackoff().toMillis();
+        long max = config.getMaxBackoff().toMillis();
+        long exponential = initial << Math.min(attempts - 1, 30);
+        long capped = exponential <= 0 || exponential > max ? max : exponential;
+        long half = capped / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private void reschedule(MerchantNotification notification, int attempts, Instant nextAttemptAt, String error) {
+        try {
+            repository.reschedule(notification, attempts, nextAttemptAt, error);
+        } catch (RuntimeException e) {
+            log.error("Failed to reschedule notification for invoice {}",
+                    notification.getInvoiceId().getValue(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        completions.shutdown();
+        if (!completions.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Merchant notification completions did not finish in time; their leases will expire");
+            completions.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.payme.application;
+
+import com.payme.config.OptimisticRetryConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a unit of work that lost an optimistic lock.
+ *
+ * The work must open its own transaction, so each attempt re-reads current
+ * state and re-applies the domain rules to it. Attempts are bounded and
+ * separated by exponential backoff with full jitter, so instances that
+ * collided on a row do not collide again in lockstep.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final OptimisticRetryConfig config;
+    private final MeterRegistry meterRegistry;
+
+    public OptimisticRetry(OptimisticRetryConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the work, retrying it on {@link OptimisticLockingFailureException}.
+     *
+     * @param operation Name used in logs and as the metrics tag
+     * @param work      The work, including its transaction
+     * @return The work's result
+     * @throws OptimisticLockingFailureException if every attempt conflicted
+     */
+    public <T> T execute(String operation, Supplier<T> work) {
+        int maxAttempts = Math.max(1, config.getMaxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.get();
+            } catch (OptimisticLockingFailureException e) {
+                counter("payme.optimistic.conflicts", operation).increment();
+                if (attempt >= maxAttempts) {
+                    counter("payme.optimistic.exhausted", operation).increment();
+                    log.warn("{} still conflicting after {} attempts: {}", operation, attempt, e.getMessage());
+                    throw e;
+                }
+                counter("payme.optimistic.retries", operation).increment();
+                log.debug("{} conflicted on attempt {}, retrying: {}", operation, attempt, e.getMessage());
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable work) {
+        execute(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private void backoff(int attempt, OptimisticLockingFailureException conflict) {
+        long initial = config.getInitialBackoff().toNanos();
+        long cap = config.getMaxBackoff().toNanos();
+        long ceiling = Math.min(cap, initial << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        long sleepNanos = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -6,9 +6,12 @@ import com.payme.domain.exceptions.WebhookVerificationException;
 import com.payme.ports.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
 
@@ -21,7 +24,12 @@ public class ProcessWebhookUseCase {
     private final WebhookEventRepository webhookEventRepository;
     private final PaymentAttemptRepository paymentAttemptRepository;
     private final InvoiceRepository invoiceRepository;
-    private final HashService hashService;
+    private final WebhookDedupeFilter dedupeFilter;
+    private final InvoiceLockManager invoiceLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetry optimisticRetry;
+    private final InvoiceStatusNotifier statusNotifier;
+    private final InvoiceExpiryScheduler expiryScheduler;
     private final Clock clock;
 
     public ProcessWebhookUseCase(
@@ -29,55 +37,164 @@ public class ProcessWebhookUseCase {
             WebhookEventRepository webhookEventRepository,
             PaymentAttemptRepository paymentAttemptRepository,
             InvoiceRepository invoiceRepository,
-            HashService hashService,
+            WebhookDedupeFilter dedupeFilter,
+            InvoiceLockManager invoiceLocks,
+            TransactionTemplate transactionTemplate,
+            OptimisticRetry optimisticRetry,
+            InvoiceStatusNotifier statusNotifier,
+            InvoiceExpiryScheduler expiryScheduler,
             Clock clock
     ) {
         this.paymentProvider = paymentProvider;
         this.webhookEventRepository = webhookEventRepository;
         this.paymentAttemptRepository = paymentAttemptRepository;
         this.invoiceRepository = invoiceRepository;
-        this.hashService = hashService;
+        this.dedupeFilter = dedupeFilter;
+        this.invoiceLocks = invoiceLocks;
+        this.transactionTemplate = transactionTemplate;
+        this.optimisticRetry = optimisticRetry;
+        this.statusNotifier = statusNotifier;
+        this.expiryScheduler = expiryScheduler;
         this.clock = clock;
     }
 
-    @Transactional
-    public void processWebhook(ProviderName provider, String rawBody, Map<String, String> headers) {
+    /**
+     * Verifies, deduplicates and applies a webhook synchronously.
+     *
+     * The transaction is opened inside the invoice lock, so a second event for
+     * the same invoice only reads its state after the first has committed.
+     * The lock only covers this instance; if another instance changes the
+     * attempt or invoice first, the transaction is rolled back and re-run.
+     * The lock is held for one attempt at a time and released before the
+     * retry backoff, so other invoices on the same stripe are not kept waiting.
+     */
+    public void processWebhook(ProviderName provider, HashedBytes payload, Map<String, String> headers) {
         log.info("Processing webhook for provider: {}", provider);
 
-        // Step 1: Compute payload hash for deduplication
-        String payloadHash = hashService.sha256(rawBody);
+        // Step 1: Payload hash for deduplication, computed while the body was read
+        String payloadHash = payload.getSha256();
+        String rawBody = payload.asUtf8String();
         log.debug("Computed payload hash: {}", payloadHash);
 
         // Step 2: Verify and parse webhook
         CanonicalPaymentEvent event;
         try {
-            event = paymentProvider.verifyAndParseWebhook(rawBody, headers);
+            event = paymentProvider.verifyAndParseWebhook(payload.getBytes(), headers);
             log.info("Webhook verified and parsed: eventId={}, status={}", event.getEventId(), event.getStatus());
         } catch (WebhookVerificationException e) {
             log.error("Webhook verification failed", e);
             throw e;
         }
 
-        // Step 3: Check for duplicates
-        if (isDuplicate(provider, event.getEventId(), payloadHash)) {
-            log.warn("Duplicate webhook detected - eventId={}, hash={}", event.getEventId(), payloadHash);
-            // Store as duplicate for audit trail
-            WebhookEvent duplicateEvent = new WebhookEvent(
-                    WebhookEventId.generate(),
-                    provider,
-                    event.getEventId(),
-                    payloadHash,
-                    clock.now(),
-                    null,
-                    WebhookProcessingStatus.DUPLICATE,
-                    null,
-                    rawBody
-            );
-            webhookEventRepository.save(duplicateEvent);
+        // Step 3: Serialize on the invoice and run the rest in one transaction
+        InvoiceId invoiceId = resolveInvoiceId(event);
+        optimisticRetry.run("webhook", () -> invoiceLocks.withLock(invoiceId, () ->
+                transactionTemplate.executeWithoutResult(status ->
+                        claimAndProcess(provider, event, payloadHash, rawBody))));
+    }
+
+    private void claimAndProcess(
+            ProviderName provider,
+            CanonicalPaymentEvent event,
+            String payloadHash,
+            String rawBody
+    ) {
+        // Step 4: Claim the event, skipping duplicates
+        WebhookEvent webhookEvent = recordEvent(provider, event, payloadHash, rawBody);
+        if (webhookEvent.getProcessingStatus() == WebhookProcessingStatus.DUPLICATE) {
             return;
         }
 
-        // Step 4: Create and save webhook event with RECEIVED status
+        // Step 5: Process the event and update state
+        try {
+            processPaymentEvent(event);
+
+            // Mark webhook as processed
+            webhookEvent.markAsProcessed(clock.now());
+            webhookEventRepository.update(webhookEvent);
+            log.info("Webhook processing completed successfully");
+        } catch (OptimisticLockingFailureException e) {
+            // Lost a race with another instance; the caller rolls back and retries
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to process webhook", e);
+            // Mark webhook as failed
+            webhookEvent.markAsFailed(clock.now(), e.getMessage());
+            webhookEventRepository.update(webhookEvent);
+            throw new RuntimeException("Webhook processing failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Accepts a webhook into the inbox without applying any state transitions.
+     * The signature is still verified up front so forged payloads are rejected
+     * before they are stored; the payment and invoice updates are left to
+     * {@link #processInboxEvent(WebhookEventId)}.
+     *
+     * @return The event, with RECEIVED status if it was claimed and still needs processing
+     */
+    @Transactional
+    public WebhookEvent acceptWebhook(ProviderName provider, HashedBytes payload, Map<String, String> headers) {
+        log.info("Accepting webhook into inbox for provider: {}", provider);
+
+        String payloadHash = payload.getSha256();
+        String rawBody = payload.asUtf8String();
+        CanonicalPaymentEvent event = paymentProvider.verifyAndParseWebhook(payload.getBytes(), headers);
+
+        return recordEvent(provider, event, payloadHash, rawBody);
+    }
+
+    /**
+     * Applies the payment and invoice state transitions for an inbox event.
+     * The work runs under the invoice lock, and the event row is locked and
+     * re-checked inside the transaction, so events that are no longer RECEIVED
+     * are skipped and concurrent workers are safe.
+     */
+    public void processInboxEvent(WebhookEventId webhookEventId) {
+        Optional<WebhookEvent> found = webhookEventRepository.findById(webhookEventId);
+        if (found.isEmpty() || found.get().getProcessingStatus() != WebhookProcessingStatus.RECEIVED) {
+            log.debug("Inbox event {} already handled, skipping", webhookEventId.getValue());
+            return;
+        }
+
+        CanonicalPaymentEvent event = paymentProvider.verifyAndParseWebhook(found.get().getRawPayload(), Map.of());
+        InvoiceId invoiceId = resolveInvoiceId(event);
+
+        optimisticRetry.run("webhook-inbox", () -> invoiceLocks.withLock(invoiceId, () ->
+                transactionTemplate.executeWithoutResult(status ->
+                        processLockedInboxEvent(webhookEventId, event))));
+    }
+
+    private void processLockedInboxEvent(WebhookEventId webhookEventId, CanonicalPaymentEvent event) {
+        Optional<WebhookEvent> locked = webhookEventRepository.findByIdForUpdate(webhookEventId);
+        if (locked.isEmpty() || locked.get().getProcessingStatus() != WebhookProcessingStatus.RECEIVED) {
+            log.debug("Inbox event {} already handled, skipping", webhookEventId.getValue());
+            return;
+        }
+        WebhookEvent webhookEvent = locked.get();
+
+        processPaymentEvent(event);
+
+        webhookEvent.markAsProcessed(clock.now());
+        webhookEventRepository.update(webhookEvent);
+        log.info("Inbox event processed: {}", webhookEventId.getValue());
+    }
+
+    /**
+     * Claims the event with RECEIVED status. The insert is guarded by the
+     * provider event ID and payload hash unique constraints, so concurrent
+     * deliveries of the same event cannot both be claimed. Events the dedupe
+     * filter reports as possibly seen are checked with an indexed read first,
+     * so retried deliveries do not cost a conflicting insert.
+     *
+     * @return The event, with RECEIVED status if claimed or DUPLICATE otherwise
+     */
+    private WebhookEvent recordEvent(
+            ProviderName provider,
+            CanonicalPaymentEvent event,
+            String payloadHash,
+            String rawBody
+    ) {
         WebhookEvent webhookEvent = new WebhookEvent(
                 WebhookEventId.generate(),
                 provider,
@@ -89,24 +206,25 @@ public class ProcessWebhookUseCase {
                 null,
                 rawBody
         );
-        webhookEvent = webhookEventRepository.save(webhookEvent);
-        log.info("Webhook event stored with id: {}", webhookEvent.getId().getValue());
 
-        // Step 5: Process the event and update state
-        try {
-            processPaymentEvent(event);
+        if (dedupeFilter.mightContain(provider, event.getEventId(), payloadHash)) {
+            if (isDuplicate(provider, event.getEventId(), payloadHash)) {
+                log.warn("Duplicate webhook detected - eventId={}, hash={}", event.getEventId(), payloadHash);
+                webhookEvent.markAsDuplicate();
+                return webhookEvent;
+            }
+            dedupeFilter.recordFalsePositive();
+        }
 
-            // Mark webhook as processed
-            webhookEvent.markAsProcessed(clock.now());
-            webhookEventRepository.save(webhookEvent);
-            log.info("Webhook processing completed successfully");
-        } catch (Exception e) {
-            log.error("Failed to process webhook", e);
-            // Mark webhook as failed
-            webhookEvent.markAsFailed(clock.now(), e.getMessage());
-            webhookEventRepository.save(webhookEvent);
-            throw new RuntimeException("Webhook processing failed: " + e.getMessage(), e);
+        if (!webhookEventRepository.claim(webhookEvent)) {
+            log.warn("Duplicate webhook detected - eventId={}, hash={}", event.getEventId(), payloadHash);
+            webhookEvent.markAsDuplicate();
+            return webhookEvent;
         }
+
+        dedupeFilter.record(provider, event.getEventId(), payloadHash);
+        log.info("Webhook event stored with id: {}", webhookEvent.getId().getValue());
+        return webhookEvent;
     }
 
     private boolean isDuplicate(ProviderName provider, String eventId, String payloadHash) {
@@ -134,45 +252,104 @@ public class ProcessWebhookUseCase {
         PaymentAttempt attempt = findPaymentAttempt(event);
 
         // Update attempt status based on event
-        updatePaymentAttemptStatus(attempt, event.getStatus());
-
-        // Save updated attempt
-        attempt = paymentAttemptRepository.save(attempt);
+        attempt = transitionPaymentAttempt(attempt, event.getStatus());
         log.info("Payment attempt updated: attemptId={}, status={}", 
                 attempt.getAttemptId().getValue(), attempt.getStatus());
 
         // Update invoice status based on attempt outcome
-        InvoiceId invoiceId = attempt.getInvoiceId();
+        transitionInvoice(attempt.getInvoiceId(), attempt.getStatus());
+    }
+
+    /**
+     * Applies the event to the attempt. The domain rules are checked on the
+     * loaded copy, then the change is written against the version that was
+     * loaded, so a concurrent delivery cannot be overwritten; if one got
+     * there first the whole unit of work is retried against current state.
+     *
+     * @return The attempt in its resulting state
+     */
+    private PaymentAttempt transitionPaymentAttempt(PaymentAttempt attempt, PaymentEventStatus eventStatus) {
+        PaymentAttemptStatus loadedStatus = attempt.getStatus();
+        updatePaymentAttemptStatus(attempt, eventStatus);
+        if (attempt.getStatus() == loadedStatus) {
+            return attempt;
+        }
+        return paymentAttemptRepository.update(attempt);
+    }
+
+    /**
+     * Moves the invoice to match the attempt outcome with a conditional
+     * UPDATE guarded by the domain's allowed source statuses. Only when that
+     * does not apply is the invoice loaded, so the domain can report why.
+     */
+    private void transitionInvoice(InvoiceId invoiceId, PaymentAttemptStatus attemptStatus) {
+        InvoiceStatus target = switch (attemptStatus) {
+            case SUCCEEDED -> InvoiceStatus.SUCCEEDED;
+            case FAILED -> InvoiceStatus.FAILED;
+            case PENDING -> null;
+        };
+        if (target == null) {
+            // Invoice should already be PENDING from checkout start
+            log.debug("Invoice already in PENDING state");
+            return;
+        }
+
+        Instant now = clock.now();
+        boolean applied = invoiceRepository.compareAndSetStatus(
+                invoiceId, Invoice.allowedSourceStatuses(target), target, now);
+        if (applied) {
+            log.info("Invoice updated: invoiceId={}, status={}", invoiceId.getValue(), target);
+            statusNotifier.statusChanged(new InvoiceStatusChange(invoiceId, target, now));
+            if (target == InvoiceStatus.SUCCEEDED) {
+                expiryScheduler.cancel(invoiceId);
+            }
+            return;
+        }
+
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new InvoiceNotFoundException("Invoice not found: " + invoiceId.getValue()));
+        updateInvoiceStatus(invoice, attemptStatus);
+        throw new OptimisticLockingFailureException("Invoice changed concurrently: " + invoiceId.getValue());
+    }
 
-        updateInvoiceStatus(invoice, attempt.getStatus());
-
-        // Save updated invoice
-        invoiceRepository.save(invoice);
-        log.info("Invoice updated: invoiceId={}, status={}", 
-                invoice.getInvoiceId().getValue(), invoice.getStatus());
+    /**
+     * Determines which invoice an event belongs to, so work can be serialized
+     * on it before any state is read.
+     */
+    private InvoiceId resolveInvoiceId(CanonicalPaymentEvent event) {
+        if (event.getInvoiceId() != null) {
+            return event.getInvoiceId();
+        }
+        return findPaymentAttempt(event).getInvoiceId();
     }
 
     private PaymentAttempt findPaymentAttempt(CanonicalPaymentEvent event) {
-        // Try to find by attempt reference first
-        if (event.getAttemptReference() != null && !event.getAttemptReference().isEmpty()) {
-            Optional<PaymentAttempt> attemptOpt = paymentAttemptRepository.findByProviderReference(event.getAttemptReference());
+        String reference = event.getAttemptReference();
+        if (reference != null && !reference.isEmpty()) {
+            // Providers that echo our attempt ID back (PayFast's custom_str1) resolve with a primary key read
+            Optional<PaymentAttempt> attemptOpt = paymentAttemptRepository.findById(new PaymentAttemptId(reference))
+                    .filter(attempt -> event.getInvoiceId() == null
+                            || attempt.getInvoiceId().equals(event.getInvoiceId()));
+            if (attemptOpt.isPresent()) {
+                return attemptOpt.get();
+            }
+
+            // Otherwise the reference is the provider's own
+            attemptOpt = paymentAttemptRepository.findByProviderReference(reference);
             if (attemptOpt.isPresent()) {
                 return attemptOpt.get();
             }
         }
 
-        // If not found and we have an invoice ID, try to find the most recent attempt for that invoice
+        // If not found and we have an invoice ID, use the most recent attempt for that invoice
         if (event.getInvoiceId() != null) {
-            var attempts = paymentAttemptRepository.findByInvoiceId(event.getInvoiceId());
-            if (!attempts.isEmpty()) {
-                // Return the most recent attempt (assuming last in list)
-                return attempts.get(attempts.size() - 1);
+            Optional<PaymentAttempt> latest = paymentAttemptRepository.findLatestByInvoiceId(event.getInvoiceId());
+            if (latest.isPresent()) {
+                return latest.get();
             }
         }
 
-        throw new RuntimeException("Payment attempt not found for reference: " + event.getAttemptReference());
+        throw new RuntimeException("Payment attempt not found for reference: " + reference);
     }
 
     private void updatePaymentAttemptStatus(PaymentAttempt attempt, PaymentEventStatus eventStatus) {
@@ -7,7 +7,7 @@ import com.payme.ports.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 
@@ -21,23 +21,41 @@ public class StartCheckoutUseCase {
     private final PaymentProvider paymentProvider;
     private final Clock clock;
     private final CheckoutUrls checkoutUrls;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetry optimisticRetry;
+    private final InvoiceStatusNotifier statusNotifier;
 
     public StartCheckoutUseCase(
             InvoiceRepository invoiceRepository,
             PaymentAttemptRepository paymentAttemptRepository,
             PaymentProvider paymentProvider,
             Clock clock,
-            CheckoutUrls checkoutUrls
+            CheckoutUrls checkoutUrls,
+            TransactionTemplate transactionTemplate,
+            OptimisticRetry optimisticRetry,
+            InvoiceStatusNotifier statusNotifier
     ) {
         this.invoiceRepository = invoiceRepository;
         this.paymentAttemptRepository = paymentAttemptRepository;
         this.paymentProvider = paymentProvider;
         this.clock = clock;
         this.checkoutUrls = checkoutUrls;
+        this.transactionTemplate = transactionTemplate;
+        this.optimisticRetry = optimisticRetry;
+        this.statusNotifier = statusNotifier;
     }
 
-    @Transactional
+    /**
+     * Starts a checkout in its own transaction. If the invoice changes between
+     * being read and being marked PENDING, the transaction is rolled back and
+     * the checkout retried against the invoice's current state.
+     */
     public CheckoutResult execute(InvoiceId invoiceId) {
+        return optimisticRetry.execute("checkout", () ->
+                transactionTemplate.execute(status -> startCheckout(invoiceId)));
+    }
+
+    private CheckoutResult startCheckout(InvoiceId invoiceId) {
         Instant now = clock.now();
 
         log.info("Starting checkout for invoice: {}", invoiceId.getValue());
@@ -75,13 +93,16 @@ public class StartCheckoutUseCase {
                 now,
                 now
         );
-        paymentAttemptRepository.save(attempt);
+        paymentAttemptRepository.insert(attempt);
         log.info("Payment attempt saved: {}", attemptId.getValue());
 
-        // 6. Mark invoice as PENDING
-        invoice.markAsPending(now);
-        invoiceRepository.save(invoice);
-        log.info("Invoice marked as PENDING: {}", invoiceId.getValue());
+        // 6. Mark invoice as PENDING, unless an earlier checkout already did
+        if (invoice.getStatus() == InvoiceStatus.CREATED) {
+            invoice.markAsPending(now);
+            invoiceRepository.update(invoice);
+            statusNotifier.statusChanged(new InvoiceStatusChange(invoiceId, InvoiceStatus.PENDING, now));
+            log.info("Invoice marked as PENDING: {}", invoiceId.getValue());
+        }
 
         // 7. Return checkout URL
         return new CheckoutResult(session.getCheckoutUrl(), attemptId.getValue());
@@ -0,0 +1,212 @@
+package com.payme.application;
+
+import com.payme.config.WebhookInboxConfig;
+import com.payme.config.WorkerThreads;
+import com.payme.domain.WebhookEvent;
+import com.payme.domain.WebhookEventId;
+import com.payme.domain.WebhookProcessingStatus;
+import com.payme.domain.exceptions.WebhookVerificationException;
+import com.payme.ports.Clock;
+import com.payme.ports.WebhookEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the webhook inbox with a bounded worker pool.
+ *
+ * Events are handed over directly after they are accepted, and a poller picks
+ * up anything left in RECEIVED status (queue overflow, restarts, other nodes),
+ * so the inbox table stays the source of truth.
+ *
+ * The provider has already been answered by the time an event is processed,
+ * so a failure must not lose it: the event stays RECEIVED and is retried with
+ * exponential backoff. Only after the last attempt, or straight away if the
+ * stored payload no longer verifies, is it moved to DEAD_LETTERED.
+ */
+@Component
+public class WebhookInboxWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookInboxWorker.class);
+
+    private final ProcessWebhookUseCase processWebhookUseCase;
+    private final WebhookEventRepository webhookEventRepository;
+    private final WebhookInboxConfig config;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final ThreadPoolExecutor executor;
+    private final Set<WebhookEventId> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter processedCounter;
+    private final Counter failedCounter;
+    private final Counter deadLetteredCounter;
+
+    public WebhookInboxWorker(
+            ProcessWebhookUseCase processWebhookUseCase,
+            WebhookEventRepository webhookEventRepository,
+            WebhookInboxConfig config,
+            TransactionTemplate transactionTemplate,
+            Clock clock,
+            MeterRegistry meterRegistry,
+            Environment environment
+    ) {
+        this.processWebhookUseCase = processWebhookUseCase;
+        this.webhookEventRepository = webhookEventRepository;
+        this.config = config;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+
+        this.executor = new ThreadPoolExecutor(
+                config.getWorkers(),
+                config.getWorkers(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                WorkerThreads.factory("webhook-inbox-", environment),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("payme.webhooks.inbox.queue.depth", executor, e -> e.getQueue().size())
+                .description("Inbox events waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("payme.webhooks.inbox.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Inbox events being processed")
+                .register(meterRegistry);
+        Gauge.builder("payme.webhooks.inbox.backlog", backlog, AtomicLong::get)
+                .description("Inbox events in RECEIVED status at the last poll")
+                .register(meterRegistry);
+        this.processedCounter = Counter.builder("payme.webhooks.inbox.processed").register(meterRegistry);
+        this.failedCounter = Counter.builder("payme.webhooks.inbox.failed")
+                .description("Inbox processing attempts that failed and were scheduled again")
+                .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("payme.webhooks.inbox.dead_lettered")
+                .description("Inbox events given up on and moved to DEAD_LETTERED")
+                .register(meterRegistry);
+
+        log.info("WebhookInboxWorker initialized with {} workers and queue capacity {} (enabled: {})",
+                config.getWorkers(), config.getQueueCapacity(), config.isEnabled());
+    }
+
+    /**
+     * Hands an accepted event to the worker pool. If the queue is full the
+     * event stays in the inbox and is picked up by the next poll.
+     *
+     * @param webhookEventId ID of an event in RECEIVED status
+     */
+    public void submit(WebhookEventId webhookEventId) {
+        if (!inFlight.add(webhookEventId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> process(webhookEventId));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(webhookEventId);
+            log.debug("Inbox queue full, event {} left for the poller", webhookEventId.getValue());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payme.webhooks.inbox.poll-interval:PT1S}")
+    public void poll() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        backlog.set(webhookEventRepository.countByStatus(WebhookProcessingStatus.RECEIVED));
+
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+
+        List<WebhookEventId> pending = webhookEventRepository.findDueInboxIds(
+                clock.now(), Math.min(capacity, config.getBatchSize()));
+        pending.forEach(this::submit);
+    }
+
+    private void process(WebhookEventId webhookEventId) {
+        try {
+            processWebhookUseCase.processInboxEvent(webhookEventId);
+            processedCounter.increment();
+        } catch (Exception e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            try {
+                recordFailure(webhookEventId, message, !(e instanceof WebhookVerificationException), e);
+            } catch (Exception recordFailure) {
+                // Still RECEIVED with its previous schedule, so the poller retries it
+                log.error("Failed to record failure of inbox event {}", webhookEventId.getValue(), recordFailure);
+            }
+        } finally {
+            inFlight.remove(webhookEventId);
+        }
+    }
+
+    /**
+     * Schedules the next attempt, or dead-letters the event if it is out of
+     * attempts or the failure cannot go away by retrying. Runs in its own
+     * transaction because the one that failed has already been rolled back.
+     */
+    private void recordFailure(WebhookEventId webhookEventId, String message, boolean retryable, Exception cause) {
+        transactionTemplate.executeWithoutResult(status -> {
+            WebhookEvent event = webhookEventRepository.findByIdForUpdate(webhookEventId).orElse(null);
+            if (event == null || event.getProcessingStatus() != WebhookProcessingStatus.RECEIVED) {
+                return;
+            }
+
+            Instant now = clock.now();
+            int attempts = event.getAttempts() + 1;
+            if (!retryable || attempts >= config.getMaxAttempts()) {
+                event.markAsDeadLettered(now, message);
+                deadLetteredCounter.increment();
+                log.error("Giving up on inbox event {} after {} attempts; it is now DEAD_LETTERED",
+                        webhookEventId.getValue(), attempts, cause);
+            } else {
+                Instant nextAttemptAt = now.plus(backoff(attempts));
+                event.scheduleRetry(nextAttemptAt, message);
+                failedCounter.increment();
+                log.warn("Inbox event {} failed (attempt {}), retrying at {}: {}",
+                        webhookEventId.getValue(), attempts, nextAttemptAt, message);
+            }
+            webhookEventRepository.update(event);
+        });
+    }
+
+    /**
+     * Exponential backoff with equal jitter, so events that failed together
+     * do not all come back at once.
+     */
+    private Duration backoff(int attempts) {
+        long initial = config.getInitialBackoff().toMillis();
+        long max = config.getMaxBackoff().toMillis();
+        long exponential = initial << Math.min(attempts - 1, 30);
+        long capped = exponential <= 0 || exponential > max ? max : exponential;
+        long half = capped / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Inbox workers did not finish in time; remaining events stay RECEIVED");
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.payme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for bulk invoice creation.
+ * Maps to 'payme.invoices.bulk' prefix in application.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payme.invoices.bulk")
+public class BulkInvoiceConfig {
+
+    private int maxItems = 1_000;
+    private int chunkSize = 500;
+    private int maxLineLength = 16 * 1024;
+    private int validationWorkers = 4;
+    private int validationQueueCapacity = 64;
+
+    // Getters and Setters
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public void setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    public void setMaxLineLength(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+    }
+
+    public int getValidationWorkers() {
+        return validationWorkers;
+    }
+
+    public void setValidationWorkers(int validationWorkers) {
+        this.validationWorkers = validationWorkers;
+    }
+
+    public int getValidationQueueCapacity() {
+        return validationQueueCapacity;
+    }
+
+    public void setValidationQueueCapacity(int validationQueueCapacity) {
+        this.validationQueueCapacity = validationQueueCapacity;
+    }
+}
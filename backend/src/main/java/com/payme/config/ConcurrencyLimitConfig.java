@@ -0,0 +1,118 @@
+package com.payme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for concurrency limits on the webhook and checkout paths.
+ * Maps to 'payme.limits' prefix in application.yml.
+ *
+ * Each path admits up to its current limit of calls at once; up to maxQueued
+ * more wait for a slot for at most maxQueueWait, and anything beyond that is
+ * answered with 503 and a Retry-After header. With adaptive set the limit is
+ * tuned between minLimit and maxLimit from observed latency, otherwise
+ * initialLimit is used as a fixed limit.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payme.limits")
+public class ConcurrencyLimitConfig {
+
+    private Limit webhooks = new Limit();
+    private Limit checkout = new Limit();
+
+    // Getters and Setters
+
+    public Limit getWebhooks() {
+        return webhooks;
+    }
+
+    public void setWebhooks(Limit webhooks) {
+        this.webhooks = webhooks;
+    }
+
+    public Limit getCheckout() {
+        return checkout;
+    }
+
+    public void setCheckout(Limit checkout) {
+        this.checkout = checkout;
+    }
+
+    public static class Limit {
+
+        private boolean enabled = true;
+        private boolean adaptive = true;
+        private int initialLimit = 32;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+        private int maxQueued = 64;
+        private Duration maxQueueWait = Duration.ofSeconds(1);
+        private Duration retryAfter = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        public Duration getMaxQueueWait() {
+            return maxQueueWait;
+        }
+
+        public void setMaxQueueWait(Duration maxQueueWait) {
+            this.maxQueueWait = maxQueueWait;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.payme.config;
+
+import com.payme.adapters.limiter.FixedLimit;
+import com.payme.adapters.limiter.LimitAlgorithm;
+import com.payme.adapters.limiter.QueueingConcurrencyLimiter;
+import com.payme.adapters.limiter.VegasLimit;
+import com.payme.ports.ConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ConcurrencyLimiterConfiguration {
+
+    @Bean
+    public ConcurrencyLimiter webhookLimiter(ConcurrencyLimitConfig config, MeterRegistry meterRegistry) {
+        return createLimiter("webhooks", config.getWebhooks(), meterRegistry);
+    }
+
+    @Bean
+    public ConcurrencyLimiter checkoutLimiter(ConcurrencyLimitConfig config, MeterRegistry meterRegistry) {
+        return createLimiter("checkout", config.getCheckout(), meterRegistry);
+    }
+
+    private static ConcurrencyLimiter createLimiter(
+            String name, ConcurrencyLimitConfig.Limit limit, MeterRegistry meterRegistry) {
+
+        if (!limit.isEnabled()) {
+            return new QueueingConcurrencyLimiter(
+                    name, new FixedLimit(Integer.MAX_VALUE), 0, Duration.ZERO, limit.getRetryAfter(), meterRegistry);
+        }
+
+        LimitAlgorithm algorithm = limit.isAdaptive()
+                ? new VegasLimit(limit.getInitialLimit(), limit.getMinLimit(), limit.getMaxLimit())
+                : new FixedLimit(limit.getInitialLimit());
+
+        return new QueueingConcurrencyLimiter(
+                name, algorithm, limit.getMaxQueued(), limit.getMaxQueueWait(), limit.getRetryAfter(), meterRegistry);
+    }
+}
@@ -0,0 +1,72 @@
+package com.payme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-memory invoice expiry timers.
+ * Maps to 'payme.invoices.expiry.timers' prefix in application.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payme.invoices.expiry.timers")
+public class ExpiryTimerConfig {
+
+    private boolean enabled = true;
+    private int capacity = 1_000_000;
+    private Duration tick = Duration.ofMillis(100);
+    private int workers = 2;
+    private int queueCapacity = 10_000;
+    private int rebuildPageSize = 5_000;
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public Duration getTick() {
+        return tick;
+    }
+
+    public void setTick(Duration tick) {
+        this.tick = tick;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getRebuildPageSize() {
+        return rebuildPageSize;
+    }
+
+    public void setRebuildPageSize(int rebuildPageSize) {
+        this.rebuildPageSize = rebuildPageSize;
+    }
+}
@@ -0,0 +1,54 @@
+package com.payme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-memory invoice cache.
+ * Maps to 'payme.cache.invoices' prefix in application.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payme.cache.invoices")
+public class InvoiceCacheConfig {
+
+    private boolean enabled = true;
+    private long maximumSize = 100_000;
+    private Duration openTtl = Duration.ofSeconds(5);
+    private Duration finalTtl = Duration.ofHours(1);
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getOpenTtl() {
+        return openTtl;
+    }
+
+    public void setOpenTtl(Duration openTtl) {
+        this.openTtl = openTtl;
+    }
+
+    public Duration getFinalTtl() {
+        return finalTtl;
+    }
+
+    public void setFinalTtl(Duration finalTtl) {
+        this.finalTtl = finalTtl;
+    }
+}
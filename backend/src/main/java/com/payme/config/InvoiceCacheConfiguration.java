@@ -0,0 +1,35 @@
+package com.payme.config;
+
+import com.payme.adapters.cache.CachingInvoiceRepository;
+import com.payme.adapters.persistence.jpa.InvoiceRepositoryAdapter;
+import com.payme.ports.InvoiceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class InvoiceCacheConfiguration {
+
+    /**
+     * The InvoiceRepository the use cases get: the JPA adapter, behind a cache unless disabled.
+     */
+    @Bean
+    @Primary
+    public InvoiceRepository invoiceRepository(
+            InvoiceRepositoryAdapter jpaInvoiceRepository,
+            InvoiceCacheConfig config,
+            MeterRegistry meterRegistry
+    ) {
+        if (!config.isEnabled()) {
+            return jpaInvoiceRepository;
+        }
+        return new CachingInvoiceRepository(
+                jpaInvoiceRepository,
+                config.getMaximumSize(),
+                config.getOpenTtl(),
+                config.getFinalTtl(),
+                meterRegistry
+        );
+    }
+}
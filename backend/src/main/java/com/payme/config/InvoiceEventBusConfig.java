@@ -0,0 +1,43 @@
+package com.payme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the in-process invoice event bus.
+ * Maps to 'payme.events.bus' prefix in application.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payme.events.bus")
+public class InvoiceEventBusConfig {
+
+    private int partitions = 4;
+    private int bufferSize = 4096;
+    private int batchSize = 256;
+
+    // Getters and Setters
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
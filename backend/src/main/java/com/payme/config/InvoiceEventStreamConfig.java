@@ -0,0 +1,90 @@
+package com.payme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the pay page status event streams.
+ * Maps to 'payme.pay-page.events' prefix in application.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payme.pay-page.events")
+public class InvoiceEventStreamConfig {
+
+    private int maxSubscribers = 10_000;
+    private int maxSubscribersPerInvoice = 16;
+    private Duration timeout = Duration.ofMinutes(5);
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    private int senders = 4;
+    private int maxPendingSends = 16;
+    private Duration writeTimeout = Duration.ofSeconds(10);
+    private Duration stallCheckInterval = Duration.ofSeconds(1);
+
+    // Getters and Setters
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public int getMaxSubscribersPerInvoice() {
+        return maxSubscribersPerInvoice;
+    }
+
+    public void setMaxSubscribersPerInvoice(int maxSubscribersPerInvoice) {
+        this.maxSubscribersPerInvoice = maxSubscribersPerInvoice;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public int getSenders() {
+        return senders;
+    }
+
+    public void setSenders(int senders) {
+        this.senders = senders;
+    }
+
+    public int getMaxPendingSends() {
+        return maxPendingSends;
+    }
+
+    public void setMaxPendingSends(int maxPendingSends) {
+        this.maxPendingSends = maxPendingSends;
+    }
+
+    public Duration getWriteTimeout() {
+        return writeTimeout;
+    }
+
+    public void setWriteTimeout(Duration writeTimeout) {
+        this.writeTimeout = writeTimeout;
+    }
+
+    public Duration getStallCheckInterval() {
+        return stallCheckInterval;
+    }
+
+    public void setStallCheckInterval(Duration stallCheckInterval) {
+        this.stallCheckInterval = stallCheckInterval;
+    }
+}
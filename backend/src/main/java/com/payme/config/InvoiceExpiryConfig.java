@@ -0,0 +1,72 @@
+package com.payme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the background invoice expiry sweeper.
+ * Maps to 'payme.invoices.expiry' prefix in application.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payme.invoices.expiry")
+public class InvoiceExpiryConfig {
+
+    private boolean enabled = true;
+    private Duration sweepInterval = Duration.ofSeconds(30);
+    private int batchSize = 500;
+    private int maxBatchesPerSweep = 20;
+    private Duration pendingGrace = Duration.ofHours(1);
+    private int backlogSampleLimit = 100_000;
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerSweep() {
+        return maxBatchesPerSweep;
+    }
+
+    public void setMaxBatchesPerSweep(int maxBatchesPerSweep) {
+        this.maxBatchesPerSweep = maxBatchesPerSweep;
+    }
+
+    public Duration getPendingGrace() {
+        return pendingGrace;
+    }
+
+    public void setPendingGrace(Duration pendingGrace) {
+        this.pendingGrace = pendingGrace;
+    }
+
+    public int getBacklogSampleLimit() {
+        return backlogSampleLimit;
+    }
+
+    public void setBacklogSampleLimit(int backlogSampleLimit) {
+        this.backlogSampleLimit = backlogSampleLimit;
+    }
+}
@@ -0,0 +1,36 @@
+package com.payme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for per-invoice lock striping.
+ * Maps to 'payme.locking' prefix in application.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payme.locking")
+public class InvoiceLockConfig {
+
+    private int invoiceStripes = 1024;
+    private Duration waitTimeout = Duration.ofSeconds(2);
+
+    // Getters and Setters
+
+    public int getInvoiceStripes() {
+        return invoiceStripes;
+    }
+
+    public void setInvoiceStripes(int invoiceStripes) {
+        this.invoiceStripes = invoiceStripes;
+    }
+
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public void setWaitTimeout(Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+}
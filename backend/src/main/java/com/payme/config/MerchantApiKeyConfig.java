@@ -0,0 +1,31 @@
+package com.payme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for merchant API keys.
+ * Maps to 'payme.merchants' prefix in application.yml.
+ *
+ * Endpoints that read a merchant's data in bulk need the merchant's key;
+ * merchants without one cannot use them.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payme.merchants")
+public class MerchantApiKeyConfig {
+
+    private Map<String, String> apiKeys = new HashMap<>();
+
+    // Getters and Setters
+
+    public Map<String, String> getApiKeys() {
+        return apiKeys;
+    }
+
+    public void setApiKeys(Map<String, String> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+}
@@ -0,0 +1,159 @@
+package com.payme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for outbound merchant notifications.
+ * Maps to 'payme.notifications' prefix in application.yml.
+ *
+ * Only merchants with an entry in endpoints are notified. Each of them also
+ * needs an entry in signing-secrets, the key callbacks to it are signed with.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payme.notifications")
+public class MerchantNotificationConfig {
+
+    private boolean enabled = true;
+    private Map<String, URI> endpoints = new HashMap<>();
+    private Map<String, String> signingSecrets = new HashMap<>();
+    private Duration pollInterval = Duration.ofMillis(500);
+    private int batchSize = 100;
+    private int maxInFlight = 256;
+    private int maxInFlightPerMerchant = 4;
+    private Duration merchantBusyDelay = Duration.ofSeconds(1);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private Duration lease = Duration.ofMinutes(1);
+    private int maxAttempts = 12;
+    private Duration initialBackoff = Duration.ofSeconds(5);
+    private Duration maxBackoff = Duration.ofHours(1);
+    private int workers = 4;
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, URI> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, URI> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public Map<String, String> getSigningSecrets() {
+        return signingSecrets;
+    }
+
+    public void setSigningSecrets(Map<String, String> signingSecrets) {
+        this.signingSecrets = signingSecrets;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxInFlightPerMerchant() {
+        return maxInFlightPerMerchant;
+    }
+
+    public void setMaxInFlightPerMerchant(int maxInFlightPerMerchant) {
+        this.maxInFlightPerMerchant = maxInFlightPerMerchant;
+    }
+
+    public Duration getMerchantBusyDelay() {
+        return merchantBusyDelay;
+    }
+
+    public void setMerchantBusyDelay(Duration merchantBusyDelay) {
+        this.merchantBusyDelay = merchantBusyDelay;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Duration getLease() {
+        return lease;
+    }
+
+    public void setLease(Duration lease) {
+        this.lease = lease;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+}
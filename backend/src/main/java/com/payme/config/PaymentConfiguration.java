@@ -32,14 +32,13 @@ public class PaymentConfiguration {
     public PaymentProvider paymentProvider(
             PayFastConfig payFastConfig,
             HashService hashService,
-            ObjectMapper objectMapper,
-            com.payme.adapters.provider.payfast.PayFastIpValidator ipValidator) {
+            ObjectMapper objectMapper) {
 
         ProviderName provider = ProviderName.valueOf(providerName.toUpperCase());
 
         return switch (provider) {
             case FAKE -> new FakePaymentProvider();
-            case PAYFAST -> new PayFastPaymentProvider(payFastConfig, hashService, objectMapper, ipValidator);
+            case PAYFAST -> new PayFastPaymentProvider(payFastConfig, hashService, objectMapper);
         };
     }
 }
@@ -3,7 +3,9 @@ package com.payme.domain;
 import com.payme.domain.exceptions.InvalidInvoiceStateException;
 
 import java.time.Instant;
+import java.util.EnumSet;
 import java.util.Objects;
+import java.util.Set;
 
 public class Invoice {
     private final InvoiceId invoiceId;
@@ -14,6 +16,7 @@ public class Invoice {
     private final Instant expiresAt;
     private final Instant createdAt;
     private Instant updatedAt;
+    private final long version;
 
     public Invoice(
             InvoiceId invoiceId,
@@ -24,6 +27,24 @@ public class Invoice {
             Instant expiresAt,
             Instant createdAt,
             Instant updatedAt
+    ) {
+        this(invoiceId, merchantId, money, description, status, expiresAt, createdAt, updatedAt, 0L);
+    }
+
+    /**
+     * @param version Optimistic lock version of the stored invoice, advanced by
+     *                every persisted status change
+     */
+    public Invoice(
+            InvoiceId invoiceId,
+            MerchantId merchantId,
+            Money money,
+            String description,
+            InvoiceStatus status,
+            Instant expiresAt,
+            Instant createdAt,
+            Instant updatedAt,
+            long version
     ) {
         if (invoiceId == null) {
             throw new IllegalArgumentException("InvoiceId cannot be null");
@@ -58,6 +79,21 @@ public class Invoice {
         this.expiresAt = expiresAt;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.version = version;
+    }
+
+    /**
+     * Statuses an invoice may move to the given status from. Shared by the
+     * mark methods and by repositories that apply transitions as a
+     * conditional UPDATE, so both enforce the same rules.
+     */
+    public static Set<InvoiceStatus> allowedSourceStatuses(InvoiceStatus target) {
+        return switch (target) {
+            case CREATED -> EnumSet.noneOf(InvoiceStatus.class);
+            case PENDING -> EnumSet.of(InvoiceStatus.CREATED);
+            case SUCCEEDED, FAILED -> EnumSet.of(InvoiceStatus.PENDING);
+            case EXPIRED -> EnumSet.of(InvoiceStatus.CREATED, InvoiceStatus.PENDING, InvoiceStatus.FAILED);
+        };
     }
 
     public boolean isPayable(Instant now) {
@@ -69,8 +105,21 @@ public class Invoice {
         return now.isAfter(expiresAt);
     }
 
+    /**
+     * The invoice as it stands at the given time, without changing it or its
+     * stored state: a CREATED invoice past its expiry is reported as EXPIRED
+     * from the moment it lapsed, as markAsExpired would have left it.
+     */
+    public Invoice asOf(Instant now) {
+        if (status != InvoiceStatus.CREATED || !isExpired(now)) {
+            return this;
+        }
+        return new Invoice(invoiceId, merchantId, money, description,
+                InvoiceStatus.EXPIRED, expiresAt, createdAt, expiresAt, version);
+    }
+
     public void markAsPending(Instant now) {
-        if (status != InvoiceStatus.CREATED) {
+        if (!allowedSourceStatuses(InvoiceStatus.PENDING).contains(status)) {
             throw new InvalidInvoiceStateException(
                     "Cannot mark as PENDING from status: " + status
             );
@@ -85,7 +134,7 @@ public class Invoice {
     }
 
     public void markAsSucceeded(Instant now) {
-        if (status != InvoiceStatus.PENDING) {
+        if (!allowedSourceStatuses(InvoiceStatus.SUCCEEDED).contains(status)) {
             throw new InvalidInvoiceStateException(
                     "Cannot mark as SUCCEEDED from status: " + status
             );
@@ -95,7 +144,7 @@ public class Invoice {
     }
 
     public void markAsFailed(Instant now) {
-        if (status != InvoiceStatus.PENDING) {
+        if (!allowedSourceStatuses(InvoiceStatus.FAILED).contains(status)) {
             throw new InvalidInvoiceStateException(
                     "Cannot mark as FAILED from status: " + status
             );
@@ -155,6 +204,10 @@ public class Invoice {
         return updatedAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
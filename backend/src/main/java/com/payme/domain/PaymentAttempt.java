@@ -3,7 +3,9 @@ package com.payme.domain;
 import com.payme.domain.exceptions.InvalidPaymentAttemptStateException;
 
 import java.time.Instant;
+import java.util.EnumSet;
 import java.util.Objects;
+import java.util.Set;
 
 public class PaymentAttempt {
     private final PaymentAttemptId attemptId;
@@ -13,6 +15,7 @@ public class PaymentAttempt {
     private PaymentAttemptStatus status;
     private final Instant createdAt;
     private Instant updatedAt;
+    private final long version;
 
     public PaymentAttempt(
             PaymentAttemptId attemptId,
@@ -22,6 +25,23 @@ public class PaymentAttempt {
             PaymentAttemptStatus status,
             Instant createdAt,
             Instant updatedAt
+    ) {
+        this(attemptId, invoiceId, provider, providerReference, status, createdAt, updatedAt, 0L);
+    }
+
+    /**
+     * @param version Optimistic lock version of the stored attempt, advanced by
+     *                every persisted status change
+     */
+    public PaymentAttempt(
+            PaymentAttemptId attemptId,
+            InvoiceId invoiceId,
+            ProviderName provider,
+            String providerReference,
+            PaymentAttemptStatus status,
+            Instant createdAt,
+            Instant updatedAt,
+            long version
     ) {
         if (attemptId == null) {
             throw new IllegalArgumentException("AttemptId cannot be null");
@@ -52,15 +72,28 @@ public class PaymentAttempt {
         this.status = status;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.version = version;
+    }
+
+    /**
+     * Statuses an attempt may move to the given status from. Shared by the
+     * mark methods and by repositories that apply transitions as a
+     * conditional UPDATE.
+     */
+    public static Set<PaymentAttemptStatus> allowedSourceStatuses(PaymentAttemptStatus target) {
+        return switch (target) {
+            case PENDING -> EnumSet.noneOf(PaymentAttemptStatus.class);
+            case SUCCEEDED, FAILED -> EnumSet.of(PaymentAttemptStatus.PENDING);
+        };
     }
 
     public void markAsSucceeded(Instant now) {
         if (status == PaymentAttemptStatus.SUCCEEDED) {
             return; // Already succeeded, idempotent
         }
-        if (status == PaymentAttemptStatus.FAILED) {
+        if (!allowedSourceStatuses(PaymentAttemptStatus.SUCCEEDED).contains(status)) {
             throw new InvalidPaymentAttemptStateException(
-                    "Cannot mark FAILED attempt as SUCCEEDED"
+                    "Cannot mark " + status + " attempt as SUCCEEDED"
             );
         }
         this.status = PaymentAttemptStatus.SUCCEEDED;
@@ -71,9 +104,9 @@ public class PaymentAttempt {
         if (status == PaymentAttemptStatus.FAILED) {
             return; // Already failed, idempotent
         }
-        if (status == PaymentAttemptStatus.SUCCEEDED) {
+        if (!allowedSourceStatuses(PaymentAttemptStatus.FAILED).contains(status)) {
             throw new InvalidPaymentAttemptStateException(
-                    "Cannot mark SUCCEEDED attempt as FAILED"
+                    "Cannot mark " + status + " attempt as FAILED"
             );
         }
         this.status = PaymentAttemptStatus.FAILED;
@@ -109,6 +142,10 @@ public class PaymentAttempt {
         return updatedAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
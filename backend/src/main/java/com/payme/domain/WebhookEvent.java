@@ -13,6 +13,8 @@ public class WebhookEvent {
     private WebhookProcessingStatus processingStatus;
     private String error;
     private final String rawPayload;
+    private int attempts;
+    private Instant nextAttemptAt;
 
     public WebhookEvent(
             WebhookEventId id,
@@ -24,6 +26,22 @@ public class WebhookEvent {
             WebhookProcessingStatus processingStatus,
             String error,
             String rawPayload
+    ) {
+        this(id, provider, providerEventId, payloadHash, receivedAt, processedAt, processingStatus, error, rawPayload, 0, null);
+    }
+
+    public WebhookEvent(
+            WebhookEventId id,
+            ProviderName provider,
+            String providerEventId,
+            String payloadHash,
+            Instant receivedAt,
+            Instant processedAt,
+            WebhookProcessingStatus processingStatus,
+            String error,
+            String rawPayload,
+            int attempts,
+            Instant nextAttemptAt
     ) {
         if (id == null) {
             throw new IllegalArgumentException("Id cannot be null");
@@ -43,6 +61,9 @@ public class WebhookEvent {
         if (rawPayload == null || rawPayload.trim().isEmpty()) {
             throw new IllegalArgumentException("RawPayload cannot be null or empty");
         }
+        if (attempts < 0) {
+            throw new IllegalArgumentException("Attempts cannot be negative");
+        }
 
         this.id = id;
         this.provider = provider;
@@ -53,6 +74,8 @@ public class WebhookEvent {
         this.processingStatus = processingStatus;
         this.error = error;
         this.rawPayload = rawPayload;
+        this.attempts = attempts;
+        this.nextAttemptAt = nextAttemptAt;
     }
 
     public void markAsProcessed(Instant now) {
@@ -73,6 +96,37 @@ public class WebhookEvent {
         this.error = errorMessage;
     }
 
+    /**
+     * Records a failed processing attempt of an inbox event, which stays
+     * RECEIVED and is picked up again from nextAttemptAt.
+     */
+    public void scheduleRetry(Instant nextAttemptAt, String errorMessage) {
+        if (processingStatus != WebhookProcessingStatus.RECEIVED) {
+            throw new IllegalStateException("Only RECEIVED events can be retried, was " + processingStatus);
+        }
+        if (nextAttemptAt == null) {
+            throw new IllegalArgumentException("NextAttemptAt cannot be null");
+        }
+        this.attempts++;
+        this.nextAttemptAt = nextAttemptAt;
+        this.error = errorMessage;
+    }
+
+    /**
+     * Records the last failed processing attempt of an inbox event. It is no
+     * longer retried and waits for someone to look at it.
+     */
+    public void markAsDeadLettered(Instant now, String errorMessage) {
+        if (errorMessage == null || errorMessage.trim().isEmpty()) {
+            throw new IllegalArgumentException("Error message cannot be null or empty when dead-lettering");
+        }
+        this.attempts++;
+        this.processingStatus = WebhookProcessingStatus.DEAD_LETTERED;
+        this.processedAt = now;
+        this.nextAttemptAt = null;
+        this.error = errorMessage;
+    }
+
     public void markAsDuplicate() {
         this.processingStatus = WebhookProcessingStatus.DUPLICATE;
     }
@@ -114,6 +168,14 @@ public class WebhookEvent {
         return rawPayload;
     }
 
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -4,5 +4,6 @@ public enum WebhookProcessingStatus {
     RECEIVED,   // Webhook stored but not yet processed
     PROCESSED,  // Successfully processed
     FAILED,     // Processing failed with error
-    DUPLICATE   // Detected as duplicate, skipped
+    DUPLICATE,  // Detected as duplicate, skipped
+    DEAD_LETTERED // Inbox processing failed on every attempt; needs a manual replay
 }
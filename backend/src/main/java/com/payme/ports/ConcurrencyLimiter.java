@@ -0,0 +1,37 @@
+package com.payme.ports;
+
+import java.time.Duration;
+import java.util.Optional;
+
+public interface ConcurrencyLimiter {
+    /**
+     * Takes a slot for one call, waiting briefly if the limiter queues.
+     * Every permit returned must be released.
+     *
+     * @return A permit, or empty if the call should be shed
+     */
+    Optional<Permit> tryAcquire();
+
+    /**
+     * @return The number of calls currently allowed in flight
+     */
+    int getLimit();
+
+    /**
+     * @return How long a shed caller should wait before retrying
+     */
+    Duration getRetryAfter();
+
+    interface Permit {
+        /**
+         * Marks the call as failed because the system is overloaded (timeouts,
+         * pool exhaustion), so the limit backs off.
+         */
+        void markDropped();
+
+        /**
+         * Frees the slot and records the call's latency. Safe to call more than once.
+         */
+        void release();
+    }
+}
@@ -1,5 +1,9 @@
 package com.payme.ports;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
 public interface HashService {
     /**
      * Computes SHA-256 hash of the input string.
@@ -8,4 +12,35 @@ public interface HashService {
      * @return Hexadecimal representation of the hash
      */
     String sha256(String input);
+
+    /**
+     * Computes SHA-256 hash of the input bytes.
+     *
+     * @param input The bytes to hash
+     * @return Hexadecimal representation of the hash
+     */
+    String sha256(byte[] input);
+
+    /**
+     * Computes SHA-256 hash of the remaining bytes in the buffer.
+     * The buffer's position is advanced to its limit.
+     *
+     * @param input The buffer to hash
+     * @return Hexadecimal representation of the hash
+     */
+    String sha256(ByteBuffer input);
+
+    /**
+     * Reads the stream to the end, hashing the bytes as they are read.
+     * Reading stops as soon as more than maxBytes have arrived, and the size
+     * hint is only used to size the buffer when it is within maxBytes.
+     *
+     * @param input    The stream to read; it is not closed
+     * @param sizeHint Expected number of bytes, or -1 if unknown
+     * @param maxBytes Most bytes the stream may hold
+     * @return The bytes read together with their SHA-256 hash
+     * @throws PayloadTooLargeException if the stream holds more than maxBytes
+     * @throws IOException if the stream cannot be read
+     */
+    HashedBytes sha256(InputStream input, int sizeHint, int maxBytes) throws IOException;
 }
@@ -0,0 +1,31 @@
+package com.payme.ports;
+
+import java.nio.charset.StandardCharsets;
+
+public class HashedBytes {
+    private final byte[] bytes;
+    private final String sha256;
+
+    public HashedBytes(byte[] bytes, String sha256) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Bytes cannot be null");
+        }
+        if (sha256 == null || sha256.trim().isEmpty()) {
+            throw new IllegalArgumentException("SHA-256 cannot be null or empty");
+        }
+        this.bytes = bytes;
+        this.sha256 = sha256;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public String asUtf8String() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
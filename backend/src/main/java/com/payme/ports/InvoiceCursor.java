@@ -0,0 +1,33 @@
+package com.payme.ports;
+
+import com.payme.domain.InvoiceId;
+
+import java.time.Instant;
+
+/**
+ * Position in a merchant's invoice listing: the createdAt and ID of the last
+ * invoice on the previous page.
+ */
+public class InvoiceCursor {
+    private final Instant createdAt;
+    private final InvoiceId invoiceId;
+
+    public InvoiceCursor(Instant createdAt, InvoiceId invoiceId) {
+        if (createdAt == null) {
+            throw new IllegalArgumentException("CreatedAt cannot be null");
+        }
+        if (invoiceId == null) {
+            throw new IllegalArgumentException("InvoiceId cannot be null");
+        }
+        this.createdAt = createdAt;
+        this.invoiceId = invoiceId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public InvoiceId getInvoiceId() {
+        return invoiceId;
+    }
+}
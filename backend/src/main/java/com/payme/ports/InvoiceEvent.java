@@ -0,0 +1,80 @@
+package com.payme.ports;
+
+import com.payme.domain.InvoiceId;
+
+import java.time.Instant;
+
+/**
+ * A recorded state transition of an invoice or one of its payment attempts,
+ * as read back from the outbox. Sequences increase in commit order for any
+ * one invoice.
+ */
+public class InvoiceEvent {
+    private final long sequence;
+    private final InvoiceEventType type;
+    private final InvoiceId invoiceId;
+    private final String paymentAttemptId;
+    private final String status;
+    private final Instant occurredAt;
+
+    public InvoiceEvent(
+            long sequence,
+            InvoiceEventType type,
+            InvoiceId invoiceId,
+            String paymentAttemptId,
+            String status,
+            Instant occurredAt
+    ) {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        }
+        if (invoiceId == null) {
+            throw new IllegalArgumentException("InvoiceId cannot be null");
+        }
+        if (type == InvoiceEventType.PAYMENT_ATTEMPT_STATUS_CHANGED && paymentAttemptId == null) {
+            throw new IllegalArgumentException("PaymentAttemptId cannot be null for payment attempt events");
+        }
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
+        if (occurredAt == null) {
+            throw new IllegalArgumentException("OccurredAt cannot be null");
+        }
+        this.sequence = sequence;
+        this.type = type;
+        this.invoiceId = invoiceId;
+        this.paymentAttemptId = paymentAttemptId;
+        this.status = status;
+        this.occurredAt = occurredAt;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public InvoiceEventType getType() {
+        return type;
+    }
+
+    public InvoiceId getInvoiceId() {
+        return invoiceId;
+    }
+
+    /**
+     * @return The attempt's ID for payment attempt events, otherwise null
+     */
+    public String getPaymentAttemptId() {
+        return paymentAttemptId;
+    }
+
+    /**
+     * @return The invoice or payment attempt status the transition moved to
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,21 @@
+package com.payme.ports;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-process fan-out of invoice events to every {@link InvoiceEventListener}.
+ */
+public interface InvoiceEventBus {
+
+    /**
+     * Publishes events and waits until every listener has handled them.
+     * Events for the same invoice are handled in the order given. Callers
+     * publish from one thread at a time.
+     *
+     * @return false if a listener failed or the events were not all handled
+     *         within the timeout; they may still be delivered later, so the
+     *         caller should publish them again rather than assume they were not
+     */
+    boolean publish(List<InvoiceEvent> events, Duration timeout);
+}
@@ -0,0 +1,19 @@
+package com.payme.ports;
+
+import java.util.List;
+
+/**
+ * Receives invoice events from the {@link InvoiceEventBus}.
+ *
+ * Delivery is at least once, so the same event may arrive again, e.g. after a
+ * restart or a failed publish. Listeners must be idempotent; sequences and
+ * occurredAt tell a replay from a newer transition.
+ */
+public interface InvoiceEventListener {
+
+    /**
+     * Handles consecutive events, in order for any one invoice. Throwing fails
+     * the publish, so every listener gets the events again.
+     */
+    void onEvents(List<InvoiceEvent> events);
+}
@@ -0,0 +1,6 @@
+package com.payme.ports;
+
+public enum InvoiceEventType {
+    INVOICE_STATUS_CHANGED,
+    PAYMENT_ATTEMPT_STATUS_CHANGED
+}
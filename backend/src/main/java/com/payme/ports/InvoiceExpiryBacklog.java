@@ -0,0 +1,25 @@
+package com.payme.ports;
+
+import java.time.Instant;
+
+public class InvoiceExpiryBacklog {
+    private final long dueCount;
+    private final Instant oldestExpiresAt;
+
+    /**
+     * @param dueCount        Invoices due for expiry, up to the sampled limit
+     * @param oldestExpiresAt Expiry time of the longest overdue invoice, or null if none are due
+     */
+    public InvoiceExpiryBacklog(long dueCount, Instant oldestExpiresAt) {
+        this.dueCount = dueCount;
+        this.oldestExpiresAt = oldestExpiresAt;
+    }
+
+    public long getDueCount() {
+        return dueCount;
+    }
+
+    public Instant getOldestExpiresAt() {
+        return oldestExpiresAt;
+    }
+}
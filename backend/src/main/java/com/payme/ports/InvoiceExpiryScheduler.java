@@ -0,0 +1,27 @@
+package com.payme.ports;
+
+import com.payme.domain.InvoiceId;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * In-memory timers that say when an open invoice is due to expire, so it can
+ * be expired close to its expiry time rather than at the next sweep.
+ */
+public interface InvoiceExpiryScheduler {
+
+    /**
+     * Sets the invoice's timer, replacing any it already has.
+     *
+     * @return false if the timer could not be held, e.g. because the scheduler is full
+     */
+    boolean schedule(InvoiceId invoiceId, Instant dueAt);
+
+    void cancel(InvoiceId invoiceId);
+
+    /**
+     * Removes and returns the invoices whose timers are due at the given time.
+     */
+    List<InvoiceId> pollDue(Instant now);
+}
@@ -0,0 +1,47 @@
+package com.payme.ports;
+
+import com.payme.domain.InvoiceStatus;
+import com.payme.domain.MerchantId;
+
+import java.time.Instant;
+
+/**
+ * Filters for listing a merchant's invoices, newest first.
+ */
+public class InvoiceListQuery {
+    private final MerchantId merchantId;
+    private final InvoiceStatus status;
+    private final Instant createdBefore;
+    private final InvoiceCursor after;
+
+    /**
+     * @param status        Only invoices in this status, or null for all
+     * @param createdBefore Only invoices created before this, or null for all
+     * @param after         Continue after this position, or null for the first page
+     */
+    public InvoiceListQuery(MerchantId merchantId, InvoiceStatus status, Instant createdBefore, InvoiceCursor after) {
+        if (merchantId == null) {
+            throw new IllegalArgumentException("MerchantId cannot be null");
+        }
+        this.merchantId = merchantId;
+        this.status = status;
+        this.createdBefore = createdBefore;
+        this.after = after;
+    }
+
+    public MerchantId getMerchantId() {
+        return merchantId;
+    }
+
+    public InvoiceStatus getStatus() {
+        return status;
+    }
+
+    public Instant getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public InvoiceCursor getAfter() {
+        return after;
+    }
+}
@@ -0,0 +1,33 @@
+package com.payme.ports;
+
+import com.payme.domain.InvoiceId;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.util.function.Supplier;
+
+public interface InvoiceLockManager {
+    /**
+     * Runs the action while holding the lock for the given invoice. Actions for
+     * the same invoice run one at a time; other invoices are not blocked.
+     * Hold it for one attempt at the work only, not across retries or backoff.
+     *
+     * @param invoiceId The invoice to serialize on
+     * @param action    The work to run under the lock
+     * @return The action's result
+     * @throws CannotAcquireLockException if the lock is not free within the configured wait
+     */
+    <T> T withLock(InvoiceId invoiceId, Supplier<T> action);
+
+    /**
+     * Runs the action while holding the lock for the given invoice.
+     *
+     * @param invoiceId The invoice to serialize on
+     * @param action    The work to run under the lock
+     */
+    default void withLock(InvoiceId invoiceId, Runnable action) {
+        withLock(invoiceId, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
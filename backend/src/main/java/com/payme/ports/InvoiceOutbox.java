@@ -0,0 +1,31 @@
+package com.payme.ports;
+
+import java.util.List;
+
+/**
+ * Invoice and payment attempt transitions recorded in the same transaction
+ * as the change itself, waiting to be published.
+ *
+ * The repositories append to the outbox whenever they change a status; this
+ * port is the relay's side of it.
+ */
+public interface InvoiceOutbox {
+
+    /**
+     * Makes the current transaction the only relay until it ends, so events
+     * are published by one node at a time and stay in order.
+     *
+     * @return false if another transaction is relaying
+     */
+    boolean tryLockRelay();
+
+    /**
+     * @return Up to limit unpublished events, lowest sequence first
+     */
+    List<InvoiceEvent> findOldest(int limit);
+
+    /**
+     * Removes published events.
+     */
+    void delete(List<InvoiceEvent> events);
+}
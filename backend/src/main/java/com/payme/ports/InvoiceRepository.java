@@ -2,13 +2,85 @@ package com.payme.ports;
 
 import com.payme.domain.Invoice;
 import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.time.Instant;
+
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+/**
+ * Every write that sets a status also appends an event to the
+ * {@link InvoiceOutbox}, in the caller's transaction.
+ */
 public interface InvoiceRepository {
     
-    Invoice save(Invoice invoice);
+    /**
+     * Stores a new invoice. Issues an INSERT for the invoice and one for its outbox event.
+     */
+    Invoice insert(Invoice invoice);
+
+    /**
+     * Stores new invoices as one JDBC batch for the invoices and one for their
+     * outbox events, so a chunk costs a few round trips rather than two per invoice.
+     */
+    void insertAll(List<Invoice> invoices);
+
+    /**
+     * Writes the invoice's status and updatedAt if the stored invoice still has
+     * the version it was loaded with, advancing the version.
+     *
+     * @return The invoice with its new version
+     * @throws OptimisticLockingFailureException if the invoice was changed or removed since it was loaded
+     */
+    Invoice update(Invoice invoice);
+
+    /**
+     * Moves an invoice to a new status if its current status is one of the
+     * expected ones, as a single conditional UPDATE. Needs no loaded copy;
+     * the version is advanced like any other change.
+     *
+     * @param invoiceId        The invoice to transition
+     * @param expectedStatuses Statuses the transition is allowed from
+     * @param newStatus        The status to move to
+     * @param updatedAt        The new updatedAt timestamp
+     * @return true if the transition applied, false if the invoice is missing or in another status
+     */
+    boolean compareAndSetStatus(InvoiceId invoiceId, Set<InvoiceStatus> expectedStatuses, InvoiceStatus newStatus, Instant updatedAt);
     
+    /**
+     * Expires a batch of overdue open invoices: CREATED ones that expired
+     * before createdCutoff and PENDING ones that expired before pendingCutoff,
+     * oldest first. Invoices locked by another transaction are skipped rather
+     * than waited for, so several sweepers can work through the backlog at once.
+     *
+     * @return The invoices that were expired
+     */
+    List<InvoiceId> expireDue(Instant createdCutoff, Instant pendingCutoff, Instant updatedAt, int limit);
+
+    /**
+     * Measures the invoices {@link #expireDue} would still pick up, counting at most sampleLimit.
+     */
+    InvoiceExpiryBacklog measureExpiryBacklog(Instant createdCutoff, Instant pendingCutoff, int sampleLimit);
+
+    /**
+     * Lists open (CREATED or PENDING) invoices in expiry order, a page at a time.
+     *
+     * @param after The last entry of the previous page, or null for the first page
+     */
+    List<OpenInvoiceExpiry> findOpenExpiries(OpenInvoiceExpiry after, int limit);
+
+    /**
+     * Reads a merchant's invoices newest first (by createdAt, then ID),
+     * handing each to the consumer as it is read. Pages are found by seeking
+     * the listing index to the query's cursor, so every page costs the same
+     * however deep into the listing it is.
+     */
+    void findByMerchant(InvoiceListQuery query, int limit, Consumer<Invoice> consumer);
+
     Optional<Invoice> findById(InvoiceId invoiceId);
     
     boolean existsById(InvoiceId invoiceId);
@@ -0,0 +1,43 @@
+package com.payme.ports;
+
+import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+
+import java.time.Instant;
+
+public class InvoiceStatusChange {
+    private final InvoiceId invoiceId;
+    private final InvoiceStatus status;
+    private final Instant changedAt;
+
+    public InvoiceStatusChange(InvoiceId invoiceId, InvoiceStatus status, Instant changedAt) {
+        if (invoiceId == null) {
+            throw new IllegalArgumentException("InvoiceId cannot be null");
+        }
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
+        if (changedAt == null) {
+            throw new IllegalArgumentException("ChangedAt cannot be null");
+        }
+        this.invoiceId = invoiceId;
+        this.status = status;
+        this.changedAt = changedAt;
+    }
+
+    public InvoiceId getInvoiceId() {
+        return invoiceId;
+    }
+
+    public InvoiceStatus getStatus() {
+        return status;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public boolean isFinal() {
+        return status == InvoiceStatus.SUCCEEDED || status == InvoiceStatus.EXPIRED;
+    }
+}
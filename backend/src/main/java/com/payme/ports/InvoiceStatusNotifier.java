@@ -0,0 +1,14 @@
+package com.payme.ports;
+
+/**
+ * Told about invoice status changes, e.g. to push them to customers waiting
+ * on the pay page.
+ */
+public interface InvoiceStatusNotifier {
+
+    /**
+     * Reports a status change. When called inside a transaction the change is
+     * only delivered once that transaction commits, and dropped if it rolls back.
+     */
+    void statusChanged(InvoiceStatusChange change);
+}
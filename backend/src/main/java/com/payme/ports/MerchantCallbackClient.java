@@ -0,0 +1,18 @@
+package com.payme.ports;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends notifications to merchants' callback endpoints.
+ */
+public interface MerchantCallbackClient {
+
+    /**
+     * Posts the notification without blocking the caller.
+     *
+     * @return Completes with the HTTP status code, or exceptionally if no
+     *         response arrived, e.g. on a connection failure or timeout
+     */
+    CompletableFuture<Integer> send(URI endpoint, MerchantNotification notification);
+}
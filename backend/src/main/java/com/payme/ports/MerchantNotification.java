@@ -0,0 +1,77 @@
+package com.payme.ports;
+
+import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import com.payme.domain.MerchantId;
+
+import java.time.Instant;
+
+/**
+ * An invoice status a merchant is to be told about, as claimed for delivery.
+ */
+public class MerchantNotification {
+    private final InvoiceId invoiceId;
+    private final MerchantId merchantId;
+    private final InvoiceStatus status;
+    private final long eventSequence;
+    private final Instant occurredAt;
+    private final int attempts;
+
+    public MerchantNotification(
+            InvoiceId invoiceId,
+            MerchantId merchantId,
+            InvoiceStatus status,
+            long eventSequence,
+            Instant occurredAt,
+            int attempts
+    ) {
+        if (invoiceId == null) {
+            throw new IllegalArgumentException("InvoiceId cannot be null");
+        }
+        if (merchantId == null) {
+            throw new IllegalArgumentException("MerchantId cannot be null");
+        }
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
+        if (occurredAt == null) {
+            throw new IllegalArgumentException("OccurredAt cannot be null");
+        }
+        this.invoiceId = invoiceId;
+        this.merchantId = merchantId;
+        this.status = status;
+        this.eventSequence = eventSequence;
+        this.occurredAt = occurredAt;
+        this.attempts = attempts;
+    }
+
+    public InvoiceId getInvoiceId() {
+        return invoiceId;
+    }
+
+    public MerchantId getMerchantId() {
+        return merchantId;
+    }
+
+    public InvoiceStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return The outbox sequence of the transition; higher is newer
+     */
+    public long getEventSequence() {
+        return eventSequence;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    /**
+     * @return Delivery attempts made so far
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,38 @@
+package com.payme.ports;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Durable queue of merchant notifications, one per invoice.
+ *
+ * Updates after a delivery attempt only apply while the notification still
+ * has the event sequence that was claimed; if a newer status replaced it in
+ * the meantime, that one stays due and is delivered next.
+ */
+public interface MerchantNotificationRepository {
+
+    /**
+     * Queues a notification for each event whose invoice belongs to one of
+     * the given merchants, replacing any older one for the same invoice.
+     * Events older than what is already queued or delivered are ignored.
+     */
+    void enqueue(List<InvoiceEvent> events, Collection<String> merchantIds, Instant now);
+
+    /**
+     * Claims up to limit due notifications, oldest due first, by pushing their
+     * next attempt to leaseUntil. Rows claimed by another node are skipped.
+     * A claim that is never completed is retried once the lease runs out.
+     */
+    List<MerchantNotification> claimDue(Instant now, Instant leaseUntil, int limit);
+
+    void markDelivered(MerchantNotification notification, Instant deliveredAt);
+
+    /**
+     * Records a failed or deferred attempt.
+     *
+     * @param nextAttemptAt When to try again, or null to give up
+     */
+    void reschedule(MerchantNotification notification, int attempts, Instant nextAttemptAt, String error);
+}
@@ -0,0 +1,29 @@
+package com.payme.ports;
+
+import com.payme.domain.InvoiceId;
+
+import java.time.Instant;
+
+public class OpenInvoiceExpiry {
+    private final InvoiceId invoiceId;
+    private final Instant expiresAt;
+
+    public OpenInvoiceExpiry(InvoiceId invoiceId, Instant expiresAt) {
+        if (invoiceId == null) {
+            throw new IllegalArgumentException("InvoiceId cannot be null");
+        }
+        if (expiresAt == null) {
+            throw new IllegalArgumentException("ExpiresAt cannot be null");
+        }
+        this.invoiceId = invoiceId;
+        this.expiresAt = expiresAt;
+    }
+
+    public InvoiceId getInvoiceId() {
+        return invoiceId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,12 @@
+package com.payme.ports;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a stream holds more bytes than the reader allows.
+ */
+public class PayloadTooLargeException extends IOException {
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -3,15 +3,29 @@ package com.payme.ports;
 import com.payme.domain.InvoiceId;
 import com.payme.domain.PaymentAttempt;
 import com.payme.domain.PaymentAttemptId;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Every write that sets a status also appends an event to the
+ * {@link InvoiceOutbox}, in the caller's transaction.
+ */
 public interface PaymentAttemptRepository {
     /**
-     * Saves a payment attempt.
+     * Stores a new payment attempt. Issues an INSERT for the attempt and one for its outbox event.
      */
-    PaymentAttempt save(PaymentAttempt attempt);
+    PaymentAttempt insert(PaymentAttempt attempt);
+
+    /**
+     * Writes the attempt's status and updatedAt if the stored attempt still has
+     * the version it was loaded with, advancing the version.
+     *
+     * @return The attempt with its new version
+     * @throws OptimisticLockingFailureException if the attempt was changed or removed since it was loaded
+     */
+    PaymentAttempt update(PaymentAttempt attempt);
 
     /**
      * Finds a payment attempt by its ID.
@@ -23,6 +37,11 @@ public interface PaymentAttemptRepository {
      */
     List<PaymentAttempt> findByInvoiceId(InvoiceId invoiceId);
 
+    /**
+     * Finds the most recently created payment attempt for a given invoice.
+     */
+    Optional<PaymentAttempt> findLatestByInvoiceId(InvoiceId invoiceId);
+
     /**
      * Finds a payment attempt by provider reference.
      */
@@ -5,6 +5,7 @@ import com.payme.domain.Invoice;
 import com.payme.domain.PaymentAttemptId;
 import com.payme.domain.exceptions.WebhookVerificationException;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public interface PaymentProvider {
@@ -27,4 +28,17 @@ public interface PaymentProvider {
      * @throws WebhookVerificationException if signature verification fails
      */
     CanonicalPaymentEvent verifyAndParseWebhook(String rawBody, Map<String, String> headers) throws WebhookVerificationException;
+
+    /**
+     * Verifies and parses a webhook from its raw bytes. Providers that can work
+     * on bytes directly override this to skip decoding the body to a String.
+     *
+     * @param rawBody The raw webhook body
+     * @param headers The HTTP headers
+     * @return Canonical payment event
+     * @throws WebhookVerificationException if signature verification fails
+     */
+    default CanonicalPaymentEvent verifyAndParseWebhook(byte[] rawBody, Map<String, String> headers) throws WebhookVerificationException {
+        return verifyAndParseWebhook(new String(rawBody, StandardCharsets.UTF_8), headers);
+    }
 }
@@ -0,0 +1,36 @@
+package com.payme.ports;
+
+import com.payme.domain.ProviderName;
+
+/**
+ * In-memory front for webhook deduplication. A negative answer means the
+ * event has definitely not been seen; a positive answer must be confirmed
+ * against the database.
+ */
+public interface WebhookDedupeFilter {
+    /**
+     * Checks whether an event with this provider event ID or payload hash may
+     * have been seen before.
+     *
+     * @param provider The provider name
+     * @param eventId  The provider's event ID (may be null)
+     * @param hash     The payload hash
+     * @return false if the event is definitely new, true if it may be a duplicate
+     */
+    boolean mightContain(ProviderName provider, String eventId, String hash);
+
+    /**
+     * Adds a stored event to the filter. Called inside a transaction, the
+     * event is added once the transaction commits.
+     *
+     * @param provider The provider name
+     * @param eventId  The provider's event ID (may be null)
+     * @param hash     The payload hash
+     */
+    void record(ProviderName provider, String eventId, String hash);
+
+    /**
+     * Records that a possible hit turned out not to be a duplicate.
+     */
+    void recordFalsePositive();
+}
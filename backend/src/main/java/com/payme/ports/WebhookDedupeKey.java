@@ -0,0 +1,33 @@
+package com.payme.ports;
+
+import com.payme.domain.ProviderName;
+
+public class WebhookDedupeKey {
+    private final ProviderName provider;
+    private final String providerEventId;
+    private final String payloadHash;
+
+    public WebhookDedupeKey(ProviderName provider, String providerEventId, String payloadHash) {
+        if (provider == null) {
+            throw new IllegalArgumentException("Provider cannot be null");
+        }
+        if (payloadHash == null || payloadHash.trim().isEmpty()) {
+            throw new IllegalArgumentException("PayloadHash cannot be null or empty");
+        }
+        this.provider = provider;
+        this.providerEventId = providerEventId;
+        this.payloadHash = payloadHash;
+    }
+
+    public ProviderName getProvider() {
+        return provider;
+    }
+
+    public String getProviderEventId() {
+        return providerEventId;
+    }
+
+    public String getPayloadHash() {
+        return payloadHash;
+    }
+}
@@ -2,17 +2,76 @@ package com.payme.ports;
 
 import com.payme.domain.ProviderName;
 import com.payme.domain.WebhookEvent;
+import com.payme.domain.WebhookEventId;
+import com.payme.domain.WebhookProcessingStatus;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface WebhookEventRepository {
     /**
-     * Saves a webhook event.
+     * Writes the processing outcome of a claimed webhook event. Issues a
+     * single UPDATE; new events are stored with {@link #claim(WebhookEvent)}.
      *
-     * @param event The webhook event to save
-     * @return The saved webhook event
+     * @param event The webhook event to update
+     * @return The updated webhook event
      */
-    WebhookEvent save(WebhookEvent event);
+    WebhookEvent update(WebhookEvent event);
+
+    /**
+     * Atomically inserts a newly received webhook event unless an event with
+     * the same provider event ID or payload hash already exists.
+     *
+     * @param event The webhook event to insert
+     * @return true if the event was inserted, false if it is a duplicate
+     */
+    boolean claim(WebhookEvent event);
+
+    /**
+     * Finds a webhook event by ID.
+     *
+     * @param id The webhook event ID
+     * @return Optional containing the webhook event if found
+     */
+    Optional<WebhookEvent> findById(WebhookEventId id);
+
+    /**
+     * Finds a webhook event by ID and locks its row for the rest of the
+     * current transaction, so only one worker processes it at a time.
+     *
+     * @param id The webhook event ID
+     * @return Optional containing the webhook event if found
+     */
+    Optional<WebhookEvent> findByIdForUpdate(WebhookEventId id);
+
+    /**
+     * Finds the IDs of the oldest RECEIVED webhook events that are due for
+     * processing: never attempted, or with a retry due by now.
+     *
+     * @param now   Events whose next attempt is after this are left out
+     * @param limit Maximum number of IDs to return
+     * @return IDs ordered by received time, oldest first
+     */
+    List<WebhookEventId> findDueInboxIds(Instant now, int limit);
+
+    /**
+     * Counts webhook events in the given processing status.
+     *
+     * @param status The processing status to match
+     * @return Number of matching events
+     */
+    long countByStatus(WebhookProcessingStatus status);
+
+    /**
+     * Streams the dedupe keys of events received since the given time,
+     * without loading their payloads.
+     *
+     * @param since    Lower bound on received time, inclusive
+     * @param consumer Receives each key
+     */
+    void forEachDedupeKeySince(Instant since, Consumer<WebhookDedupeKey> consumer);
 
     /**
      * Finds a webhook event by provider and provider event ID.
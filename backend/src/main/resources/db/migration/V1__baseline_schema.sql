@@ -0,0 +1,42 @@
+-- Baseline schema, matching what hibernate.ddl-auto=update produced before
+-- migrations took over. IF NOT EXISTS lets databases created that way adopt
+-- this history without changes.
+
+create table if not exists invoices (
+    id          varchar(255)             not null,
+    merchant_id varchar(255)             not null,
+    amount      numeric(19, 2)           not null,
+    currency    varchar(3)               not null,
+    description varchar(255)             not null,
+    status      varchar(20)              not null,
+    expires_at  timestamp(6) with time zone not null,
+    created_at  timestamp(6) with time zone not null,
+    updated_at  timestamp(6) with time zone not null,
+    constraint invoices_pkey primary key (id)
+);
+
+create table if not exists payment_attempts (
+    attempt_id         varchar(255)             not null,
+    invoice_id         varchar(255)             not null,
+    provider           varchar(255)             not null,
+    provider_reference varchar(255)             not null,
+    status             varchar(255)             not null,
+    created_at         timestamp(6) with time zone not null,
+    updated_at         timestamp(6) with time zone not null,
+    constraint payment_attempts_pkey primary key (attempt_id)
+);
+
+create table if not exists webhook_events (
+    id                varchar(36)              not null,
+    provider          varchar(50)              not null,
+    provider_event_id varchar(255),
+    payload_hash      varchar(64)              not null,
+    received_at       timestamp(6) with time zone not null,
+    processed_at      timestamp(6) with time zone,
+    processing_status varchar(20)              not null,
+    error             text,
+    raw_payload       text                     not null,
+    constraint webhook_events_pkey primary key (id),
+    constraint uk_webhook_provider_event_id unique (provider, provider_event_id),
+    constraint uk_webhook_payload_hash unique (payload_hash)
+);
@@ -0,0 +1,34 @@
+-- Indexes for every query the repository ports issue.
+
+-- payment_attempts: latest attempt for an invoice (findLatestByInvoiceId,
+-- findByInvoiceId) and lookup by the provider's own reference
+create index if not exists idx_payment_attempts_invoice_created
+    on payment_attempts (invoice_id, created_at);
+create index if not exists idx_payment_attempts_provider_reference
+    on payment_attempts (provider_reference);
+
+-- invoices: per-merchant listing, newest first
+create index if not exists idx_invoices_merchant_created
+    on invoices (merchant_id, created_at desc, id desc);
+
+-- invoices: open invoices by expiry, for expiry sweeps; terminal invoices
+-- are the bulk of the table and never need to be found this way
+create index if not exists idx_invoices_open_expires_at
+    on invoices (expires_at)
+    where status in ('CREATED', 'PENDING');
+
+-- webhook_events: the unique constraints already index (provider,
+-- provider_event_id) and payload_hash, so these copies only cost writes
+drop index if exists idx_webhook_provider_event_id;
+drop index if exists idx_webhook_payload_hash;
+
+-- webhook_events: inbox backlog (findIdsByStatus, countByStatus RECEIVED)
+create index if not exists idx_webhook_events_received_backlog
+    on webhook_events (received_at)
+    where processing_status = 'RECEIVED';
+
+-- webhook_events: dedupe filter rebuild scans recent keys; covering so it
+-- is served from the index alone
+create index if not exists idx_webhook_events_received_at_dedupe_keys
+    on webhook_events (received_at)
+    include (provider, provider_event_id, payload_hash);
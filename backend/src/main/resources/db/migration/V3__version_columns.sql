@@ -0,0 +1,8 @@
+-- Optimistic lock versions. Every status change advances the row's version,
+-- so a writer holding a stale copy of an invoice or attempt is detected
+-- instead of silently overwriting a concurrent change. Existing rows start
+-- at 0.
+alter table invoices
+    add column if not exists version bigint not null default 0;
+alter table payment_attempts
+    add column if not exists version bigint not null default 0;
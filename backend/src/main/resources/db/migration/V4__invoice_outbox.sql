@@ -0,0 +1,12 @@
+-- Transactional outbox: every invoice and payment attempt status change is
+-- recorded here in the transaction that makes it, and deleted once the relay
+-- has published it. Rows are read in id order, which the primary key serves.
+create table if not exists invoice_outbox (
+    id                 bigint generated always as identity,
+    event_type         varchar(40)              not null,
+    invoice_id         varchar(255)             not null,
+    payment_attempt_id varchar(255),
+    status             varchar(20)              not null,
+    occurred_at        timestamp(6) with time zone not null,
+    constraint invoice_outbox_pkey primary key (id)
+);
@@ -0,0 +1,22 @@
+-- Outbound merchant notifications, one row per invoice. A newer status
+-- replaces one not yet delivered, so merchants get the latest state rather
+-- than every step. Delivered and abandoned rows keep their event_sequence,
+-- which stops a replayed outbox event from notifying the merchant again.
+create table if not exists merchant_notifications (
+    invoice_id      varchar(255)             not null,
+    merchant_id     varchar(255)             not null,
+    status          varchar(20)              not null,
+    event_sequence  bigint                   not null,
+    occurred_at     timestamp(6) with time zone not null,
+    attempts        integer                  not null default 0,
+    next_attempt_at timestamp(6) with time zone,
+    delivered_at    timestamp(6) with time zone,
+    last_error      text,
+    constraint merchant_notifications_pkey primary key (invoice_id)
+);
+
+-- Due notifications, for the dispatcher; delivered and abandoned rows have
+-- no next attempt and stay out of the index
+create index if not exists idx_merchant_notifications_due
+    on merchant_notifications (next_attempt_at)
+    where next_attempt_at is not null;
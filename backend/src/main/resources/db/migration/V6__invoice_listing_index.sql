@@ -0,0 +1,5 @@
+-- invoices: per-merchant listing filtered by status, newest first. Without a
+-- status filter idx_invoices_merchant_created serves the listing; with one,
+-- that index would have to skip every row in other statuses.
+create index if not exists idx_invoices_merchant_status_created
+    on invoices (merchant_id, status, created_at desc, id desc);
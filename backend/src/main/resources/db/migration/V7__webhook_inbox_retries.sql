@@ -0,0 +1,8 @@
+-- Inbox events that fail processing stay RECEIVED and are retried with
+-- backoff until the attempt limit, then move to DEAD_LETTERED. The poller
+-- skips events whose next attempt is not due yet.
+alter table webhook_events
+    add column if not exists attempts int not null default 0;
+
+alter table webhook_events
+    add column if not exists next_attempt_at timestamp(6) with time zone;
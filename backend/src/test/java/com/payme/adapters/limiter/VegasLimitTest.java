@@ -0,0 +1,113 @@
+package com.payme.adapters.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link VegasLimit} against a simulated database in virtual time, so
+ * the test is fast and does not depend on the machine's scheduling.
+ *
+ * The database has a number of connections and a service time; a call holds
+ * a connection for the service time and beyond that concurrency only queues,
+ * so the knee sits at the connection count. Clients always want more than the
+ * limit allows, as when the service is saturated. The interactive version of
+ * this is VegasLimitSimulation under src/jmh.
+ */
+class VegasLimitTest {
+
+    private static final Duration PHASE = Duration.ofSeconds(10);
+
+    @Test
+    void settlesJustPastTheKnee() {
+        SimulatedDatabase database = new SimulatedDatabase(new VegasLimit(20, 1, 500), 1);
+
+        double limit = database.run(PHASE, 10, Duration.ofMillis(5));
+
+        // A few calls queued on top of the connections, not the initial or maximum limit
+        assertThat(limit).isBetween(10.0, 20.0);
+    }
+
+    @Test
+    void backsOffWhileTheDatabaseIsSlowAndRecoversAfter() {
+        SimulatedDatabase database = new SimulatedDatabase(new VegasLimit(20, 1, 500), 2);
+
+        double healthy = database.run(PHASE, 10, Duration.ofMillis(5));
+        double degraded = database.run(PHASE, 4, Duration.ofMillis(25));
+        double recovered = database.run(PHASE, 10, Duration.ofMillis(5));
+
+        assertThat(healthy).isBetween(10.0, 20.0);
+        assertThat(degraded).isBetween(4.0, 16.0).isLessThan(healthy);
+        assertThat(recovered).isBetween(10.0, 20.0);
+    }
+
+    /**
+     * Database with a fixed pool of connections, fed by clients that keep as
+     * many calls in flight as the limit allows. Time only moves when a call
+     * completes.
+     */
+    private static final class SimulatedDatabase {
+        private static final int MAX_CONNECTIONS = 10;
+        private static final double SERVICE_JITTER = 0.1;
+
+        private final VegasLimit algorithm;
+        private final Random random;
+        private final PriorityQueue<Call> inFlight = new PriorityQueue<>(Comparator.comparingLong(Call::completesAt));
+        private final long[] connectionFreeAt = new long[MAX_CONNECTIONS];
+        private long now;
+
+        SimulatedDatabase(VegasLimit algorithm, long seed) {
+            this.algorithm = algorithm;
+            this.random = new Random(seed);
+        }
+
+        /**
+         * Runs for the given time with the database in one state.
+         *
+         * @return The limit averaged over completed calls in the second half
+         *         of the run, once it has had time to settle
+         */
+        double run(Duration duration, int connections, Duration serviceTime) {
+            long end = now + duration.toNanos();
+            long settledFrom = now + duration.toNanos() / 2;
+            double limitSum = 0;
+            long samples = 0;
+
+            while (now < end) {
+                while (inFlight.size() < algorithm.getLimit()) {
+                    admit(connections, serviceTime.toNanos());
+                }
+
+                Call call = inFlight.poll();
+                now = call.completesAt();
+                algorithm.onSample(call.completesAt() - call.admittedAt(), call.inFlightAtStart(), false);
+
+                if (now >= settledFrom) {
+                    limitSum += algorithm.getLimit();
+                    samples++;
+                }
+            }
+            return limitSum / samples;
+        }
+
+        private void admit(int connections, long serviceNanos) {
+            int connection = 0;
+            for (int i = 1; i < connections; i++) {
+                if (connectionFreeAt[i] < connectionFreeAt[connection]) {
+                    connection = i;
+                }
+            }
+            long startsAt = Math.max(now, connectionFreeAt[connection]);
+            long completesAt = startsAt + serviceNanos + (long) (random.nextDouble() * SERVICE_JITTER * serviceNanos);
+            connectionFreeAt[connection] = completesAt;
+            inFlight.add(new Call(now, inFlight.size() + 1, completesAt));
+        }
+    }
+
+    private record Call(long admittedAt, int inFlightAtStart, long completesAt) {}
+}
@@ -0,0 +1,183 @@
+package com.payme.adapters.notification;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for merchant callback endpoints, to watch the notification
+ * dispatcher against merchants that behave differently. Used by the
+ * dispatcher tests, and can be run on its own.
+ *
+ * The first path segment picks the behaviour and the last one names the merchant:
+ *   /ok/...     answers 200 straight away
+ *   /slow/...   answers 200 after SLOW_MILLIS, longer than the default request timeout
+ *   /flaky/...  answers 503 to every other request
+ *   /down/...   always answers 500
+ * A request for a merchant with a known secret whose X-Payme-Signature does
+ * not match is answered 401, whatever the behaviour.
+ *
+ * To run it on its own, point merchants at it in application.yml, e.g.
+ *   payme.notifications.endpoints.[merchant_ok]: http://localhost:9099/ok/merchant_ok
+ *   payme.notifications.signing-secrets.[merchant_ok]: secret_ok
+ * and start it with the same secrets; requests received per path and status
+ * are printed every second:
+ * ./mvnw -Pjmh test-compile exec:exec -Dbenchmark.main=com.payme.adapters.notification.MerchantCallbackStub -Djmh.args=merchant_ok=secret_ok
+ */
+public class MerchantCallbackStub implements AutoCloseable {
+
+    private static final int PORT = 9099;
+    private static final long SLOW_MILLIS = 15_000;
+    private static final long REPORT_MILLIS = 1_000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, String> secrets;
+    private final Map<String, AtomicLong> received = new ConcurrentHashMap<>();
+    private final List<Callback> callbacks = new CopyOnWriteArrayList<>();
+    private final AtomicLong flakyRequests = new AtomicLong();
+
+    private MerchantCallbackStub(HttpServer server, ExecutorService executor, Map<String, String> secrets) {
+        this.server = server;
+        this.executor = executor;
+        this.secrets = Map.copyOf(secrets);
+    }
+
+    /**
+     * Starts a stub on localhost.
+     *
+     * @param port    The port to listen on, or 0 for any free one
+     * @param secrets Signing secret per merchant ID
+     */
+    public static MerchantCallbackStub start(int port, Map<String, String> secrets) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        MerchantCallbackStub stub = new MerchantCallbackStub(server, executor, secrets);
+        server.createContext("/", stub::handle);
+        server.setExecutor(executor);
+        server.start();
+        return stub;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> secrets = new HashMap<>();
+        for (String arg : args) {
+            String[] merchantAndSecret = arg.split("=", 2);
+            if (merchantAndSecret.length == 2) {
+                secrets.put(merchantAndSecret[0], merchantAndSecret[1]);
+            }
+        }
+
+        MerchantCallbackStub stub = start(PORT, secrets);
+        System.out.printf("Merchant callback stub listening on http://localhost:%d%n", PORT);
+        while (true) {
+            Thread.sleep(REPORT_MILLIS);
+            if (!stub.received.isEmpty()) {
+                System.out.println(new TreeMap<>(stub.received));
+            }
+        }
+    }
+
+    /**
+     * @return The URI of the given behaviour for the merchant, e.g. endpoint("flaky", "merchant_1")
+     */
+    public URI endpoint(String behaviour, String merchantId) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/" + behaviour + "/" + merchantId);
+    }
+
+    /**
+     * @return Every callback received so far, in arrival order
+     */
+    public List<Callback> callbacks() {
+        return List.copyOf(callbacks);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        String[] segments = path.length() > 1 ? path.substring(1).split("/") : new String[] {""};
+        String behaviour = segments[0];
+        String merchantId = segments[segments.length - 1];
+        boolean signed = hasValidSignature(merchantId, exchange, body);
+
+        int status;
+        if (secrets.containsKey(merchantId) && !signed) {
+            status = 401;
+        } else {
+            status = switch (behaviour) {
+                case "slow" -> {
+                    sleep(SLOW_MILLIS);
+                    yield 200;
+                }
+                case "flaky" -> flakyRequests.incrementAndGet() % 2 == 0 ? 503 : 200;
+                case "down" -> 500;
+                default -> 200;
+            };
+        }
+
+        received.computeIfAbsent(path + " " + status, key -> new AtomicLong()).incrementAndGet();
+        callbacks.add(new Callback(path, status, signed,
+                exchange.getRequestHeaders().getFirst(HttpMerchantCallbackClient.SEQUENCE_HEADER),
+                new String(body, StandardCharsets.UTF_8)));
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private boolean hasValidSignature(String merchantId, HttpExchange exchange, byte[] body) {
+        String secret = secrets.get(merchantId);
+        String timestamp = exchange.getRequestHeaders().getFirst(HttpMerchantCallbackClient.TIMESTAMP_HEADER);
+        String signature = exchange.getRequestHeaders().getFirst(HttpMerchantCallbackClient.SIGNATURE_HEADER);
+        if (secret == null || timestamp == null || signature == null) {
+            return false;
+        }
+        try {
+            String expected = HttpMerchantCallbackClient.SIGNATURE_SCHEME
+                    + HttpMerchantCallbackClient.sign(secret, timestamp, body);
+            return MessageDigest.isEqual(
+                    expected.getBytes(StandardCharsets.US_ASCII), signature.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One request as the stub saw it.
+     *
+     * @param signed Whether it carried a valid signature for the merchant
+     */
+    public record Callback(String path, int status, boolean signed, String sequence, String body) {}
+}
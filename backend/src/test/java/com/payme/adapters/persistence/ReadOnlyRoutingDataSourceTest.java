@@ -0,0 +1,188 @@
+package com.payme.adapters.persistence;
+
+import com.payme.application.CreateInvoiceUseCase;
+import com.payme.application.GetInvoiceUseCase;
+import com.payme.application.GetPayPageDataUseCase;
+import com.payme.domain.Currency;
+import com.payme.domain.Invoice;
+import com.payme.ports.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks which pool each kind of transaction gets its connection from. The
+ * replica is a second, read-only pool on the same database, so reads routed
+ * there still find what the primary wrote. The invoice cache is off so every
+ * read reaches a pool. Needs Docker; skipped without it. Whether routing is
+ * set up at all is covered by ReadReplicaDataSourceConfigurationTest.
+ */
+@SpringBootTest(properties = {
+        "payme.payment.provider=FAKE",
+        "payme.cache.invoices.enabled=false"
+})
+@Import(ReadOnlyRoutingDataSourceTest.ConnectionCounting.class)
+@Testcontainers(disabledWithoutDocker = true)
+class ReadOnlyRoutingDataSourceTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void dataSources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("payme.datasource.replica.url", postgres::getJdbcUrl);
+        registry.add("payme.datasource.replica.username", postgres::getUsername);
+        registry.add("payme.datasource.replica.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private CreateInvoiceUseCase createInvoiceUseCase;
+
+    @Autowired
+    private GetInvoiceUseCase getInvoiceUseCase;
+
+    @Autowired
+    private GetPayPageDataUseCase getPayPageDataUseCase;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Invoice invoice;
+
+    @BeforeEach
+    void createInvoice() {
+        invoice = createInvoiceUseCase.execute(
+                "merchant_1", new BigDecimal("100.00"), Currency.ZAR, "Routing", 24);
+    }
+
+    @Test
+    void readOnlyUseCasesGoToReplica() {
+        ConnectionCounter.start();
+        getInvoiceUseCase.execute(invoice.getInvoiceId().getValue());
+        getPayPageDataUseCase.execute(invoice.getInvoiceId().getValue());
+        ConnectionCounter.stop();
+
+        assertThat(ConnectionCounter.count("replicaDataSource")).isEqualTo(2);
+        assertThat(ConnectionCounter.count("primaryDataSource")).isZero();
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        ConnectionCounter.start();
+        createInvoiceUseCase.execute("merchant_1", new BigDecimal("50.00"), Currency.ZAR, "Write", 24);
+        ConnectionCounter.stop();
+
+        assertThat(ConnectionCounter.count("primaryDataSource")).isPositive();
+        assertThat(ConnectionCounter.count("replicaDataSource")).isZero();
+    }
+
+    @Test
+    void readsInsideReadWriteTransactionGoToPrimary() {
+        ConnectionCounter.start();
+        transactionTemplate.executeWithoutResult(status -> {
+            invoiceRepository.findById(invoice.getInvoiceId());
+            // Joins the outer transaction, which is not read-only
+            getInvoiceUseCase.execute(invoice.getInvoiceId().getValue());
+        });
+        ConnectionCounter.stop();
+
+        assertThat(ConnectionCounter.count("primaryDataSource")).isEqualTo(1);
+        assertThat(ConnectionCounter.count("replicaDataSource")).isZero();
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class ConnectionCounting {
+
+        @Bean
+        static BeanPostProcessor connectionCountingDataSources() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource
+                            && (beanName.equals("primaryDataSource") || beanName.equals("replicaDataSource"))) {
+                        return new CountingDataSource(dataSource, beanName);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Counts connections taken from each pool on the thread that started
+     * counting, so the pollers running in the background are left out.
+     */
+    static final class ConnectionCounter {
+        private static final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        private static volatile Thread countedThread;
+
+        static void start() {
+            counts.clear();
+            countedThread = Thread.currentThread();
+        }
+
+        static void stop() {
+            countedThread = null;
+        }
+
+        static int count(String pool) {
+            AtomicInteger count = counts.get(pool);
+            return count == null ? 0 : count.get();
+        }
+
+        static void connectionTaken(String pool) {
+            if (countedThread == Thread.currentThread()) {
+                counts.computeIfAbsent(pool, key -> new AtomicInteger()).incrementAndGet();
+            }
+        }
+    }
+
+    static final class CountingDataSource extends DelegatingDataSource {
+        private final String pool;
+
+        CountingDataSource(DataSource target, String pool) {
+            super(target);
+            this.pool = pool;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            ConnectionCounter.connectionTaken(pool);
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            ConnectionCounter.connectionTaken(pool);
+            return super.getConnection(username, password);
+        }
+    }
+}
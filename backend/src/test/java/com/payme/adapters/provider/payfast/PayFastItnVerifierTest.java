@@ -0,0 +1,133 @@
+package com.payme.adapters.provider.payfast;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the single-pass verifier against {@link PayFastSignatureService} fed
+ * by the map-based parser it replaced, on the inputs where a hand-rolled parser
+ * is most likely to drift.
+ */
+class PayFastItnVerifierTest {
+
+    private static final String PASSPHRASE = "jt7NOE43FZPn";
+
+    private static final String ITN = "m_payment_id=att_1&pf_payment_id=1089250&payment_status=COMPLETE"
+            + "&item_name=Invoice+inv_1&amount_gross=100.00&amount_fee=-2.30&amount_net=97.70"
+            + "&merchant_id=10000100";
+
+    @Test
+    void plainItn() {
+        assertAgreesWithSignatureService(ITN);
+    }
+
+    @Test
+    void percentEscapesInEitherCase() {
+        assertAgreesWithSignatureService(ITN + "&custom_str1=Caf%C3%A9+%26+Co&custom_str2=caf%c3%a9%2fbar%7e"
+                + "&email_address=buyer%40example.com");
+    }
+
+    @Test
+    void plusIsSpace() {
+        assertAgreesWithSignatureService(ITN + "&name_first=Mary+Anne&name_last=van+der+Merwe");
+        assertThat(new PayFastItnVerifier(null).parse(bytes("name_first=Mary+Anne")).get("name_first"))
+                .isEqualTo("Mary Anne");
+    }
+
+    @Test
+    void emptyValuesAreLeftOut() {
+        assertAgreesWithSignatureService(ITN + "&custom_str1=&custom_int1=&name_last=");
+    }
+
+    @Test
+    void lastDuplicateKeyWins() {
+        assertAgreesWithSignatureService(ITN + "&custom_str1=first&custom_str1=second");
+        assertAgreesWithSignatureService("custom_str1=first&" + ITN + "&custom_str1=");
+    }
+
+    @Test
+    void trailingAmpersandAndSegmentsWithoutEquals() {
+        assertAgreesWithSignatureService(ITN + "&");
+        assertAgreesWithSignatureService(ITN + "&&orphan&");
+    }
+
+    @Test
+    void missingOrEmptySignatureIsRejected() {
+        for (String passphrase : new String[] {PASSPHRASE, null}) {
+            PayFastItnVerifier verifier = new PayFastItnVerifier(passphrase);
+
+            assertThat(verifier.verify(verifier.parse(bytes(ITN)))).isFalse();
+            assertThat(verifier.verify(verifier.parse(bytes(ITN + "&signature=")))).isFalse();
+            assertThat(verifier.verify(verifier.parse(bytes(ITN + "&signature=not-hex")))).isFalse();
+            assertThat(PayFastSignatureService.verifySignature(referenceParse(ITN), null, passphrase)).isFalse();
+            assertThat(PayFastSignatureService.verifySignature(referenceParse(ITN), "", passphrase)).isFalse();
+        }
+    }
+
+    @Test
+    void signatureOnlyVerifiesWithTheSamePassphrase() {
+        String withPassphrase = PayFastSignatureService.generateSignature(referenceParse(ITN), PASSPHRASE);
+        String without = PayFastSignatureService.generateSignature(referenceParse(ITN), null);
+
+        PayFastItnVerifier configured = new PayFastItnVerifier(PASSPHRASE);
+        PayFastItnVerifier unconfigured = new PayFastItnVerifier("");
+
+        assertThat(configured.verify(configured.parse(bytes(ITN + "&signature=" + withPassphrase)))).isTrue();
+        assertThat(configured.verify(configured.parse(bytes(ITN + "&signature=" + without)))).isFalse();
+        assertThat(unconfigured.verify(unconfigured.parse(bytes(ITN + "&signature=" + without)))).isTrue();
+        assertThat(unconfigured.verify(unconfigured.parse(bytes(ITN + "&signature=" + withPassphrase)))).isFalse();
+    }
+
+    /**
+     * Signs the body with the signature service, with and without a passphrase,
+     * and checks the verifier computes the same signature, accepts it in either
+     * case, and rejects it once a field is changed.
+     */
+    private static void assertAgreesWithSignatureService(String body) {
+        for (String passphrase : new String[] {PASSPHRASE, null}) {
+            PayFastItnVerifier verifier = new PayFastItnVerifier(passphrase);
+            Map<String, String> params = referenceParse(body);
+            params.remove("signature");
+            String expected = PayFastSignatureService.generateSignature(params, passphrase);
+
+            assertThat(HexFormat.of().formatHex(verifier.computeSignature(verifier.parse(bytes(body)))))
+                    .as("signature of %s with passphrase %s", body, passphrase)
+                    .isEqualTo(expected);
+
+            String signed = body + "&signature=" + expected;
+            assertThat(verifier.verify(verifier.parse(bytes(signed)))).isTrue();
+            assertThat(verifier.verify(verifier.parse(bytes(body + "&signature=" + expected.toUpperCase())))).isTrue();
+            assertThat(PayFastSignatureService.verifySignature(params, expected, passphrase)).isTrue();
+
+            String tampered = signed.replace("amount_gross=100.00", "amount_gross=1.00");
+            assertThat(verifier.verify(verifier.parse(bytes(tampered)))).isFalse();
+        }
+    }
+
+    /**
+     * The map-based parser the verifier replaced: split on '&' and the first
+     * '=', URL-decode both sides, last duplicate wins.
+     */
+    private static Map<String, String> referenceParse(String body) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : body.split("&")) {
+            String[] keyValue = pair.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8),
+                        URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,70 @@
+package com.payme.api;
+
+import com.payme.api.dto.InvoiceStatusEvent;
+import com.payme.config.InvoiceEventStreamConfig;
+import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import com.payme.ports.InvoiceStatusChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.servlet.mvc.method.annotation.RecordingEmitterHandler;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class InvoiceEventStreamsTest {
+
+    private static final Duration AWAIT = Duration.ofSeconds(10);
+    private static final Instant CREATED_AT = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final InvoiceEventStreams streams = new InvoiceEventStreams(
+            new InvoiceEventStreamConfig(), new SimpleMeterRegistry(), new MockEnvironment());
+    private final InvoiceId invoiceId = InvoiceId.generate();
+
+    @AfterEach
+    void shutdown() {
+        streams.shutdown();
+    }
+
+    @Test
+    void sendsCurrentStatusThenChanges() throws Exception {
+        SseEmitter emitter = streams.subscribe(invoiceId, () -> change(InvoiceStatus.CREATED, 0)).orElseThrow();
+        RecordingEmitterHandler response = RecordingEmitterHandler.attach(emitter);
+
+        streams.statusChanged(change(InvoiceStatus.PENDING, 1));
+        streams.statusChanged(change(InvoiceStatus.SUCCEEDED, 2));
+
+        await().atMost(AWAIT).until(response::isCompleted);
+        assertThat(statuses(response))
+                .containsExactly(InvoiceStatus.CREATED, InvoiceStatus.PENDING, InvoiceStatus.SUCCEEDED);
+    }
+
+    @Test
+    void changePublishedWhileReadingCurrentStatusFollowsIt() throws Exception {
+        // The webhook commits after the subscriber is registered but before the
+        // (stale) status it read is queued
+        SseEmitter emitter = streams.subscribe(invoiceId, () -> {
+            streams.statusChanged(change(InvoiceStatus.SUCCEEDED, 2));
+            return change(InvoiceStatus.PENDING, 1);
+        }).orElseThrow();
+        RecordingEmitterHandler response = RecordingEmitterHandler.attach(emitter);
+
+        await().atMost(AWAIT).until(response::isCompleted);
+        assertThat(statuses(response)).containsExactly(InvoiceStatus.PENDING, InvoiceStatus.SUCCEEDED);
+    }
+
+    private InvoiceStatusChange change(InvoiceStatus status, long secondsAfterCreation) {
+        return new InvoiceStatusChange(invoiceId, status, CREATED_AT.plusSeconds(secondsAfterCreation));
+    }
+
+    private static List<InvoiceStatus> statuses(RecordingEmitterHandler response) {
+        return response.sent(InvoiceStatusEvent.class).stream().map(InvoiceStatusEvent::getStatus).toList();
+    }
+}
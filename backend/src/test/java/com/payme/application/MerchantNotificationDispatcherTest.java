@@ -0,0 +1,306 @@
+package com.payme.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.payme.adapters.notification.HttpMerchantCallbackClient;
+import com.payme.adapters.notification.MerchantCallbackStub;
+import com.payme.adapters.notification.MerchantCallbackStub.Callback;
+import com.payme.config.MerchantNotificationConfig;
+import com.payme.domain.InvoiceId;
+import com.payme.domain.InvoiceStatus;
+import com.payme.domain.MerchantId;
+import com.payme.ports.Clock;
+import com.payme.ports.InvoiceEvent;
+import com.payme.ports.InvoiceEventType;
+import com.payme.ports.MerchantNotification;
+import com.payme.ports.MerchantNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs the dispatcher and the HTTP callback client against
+ * {@link MerchantCallbackStub}, with the notification queue kept in memory.
+ */
+class MerchantNotificationDispatcherTest {
+
+    private static final String MERCHANT = "merchant_1";
+    private static final String SECRET = "secret_1";
+    private static final Duration AWAIT = Duration.ofSeconds(10);
+
+    private final TestClock clock = new TestClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private final InMemoryNotificationRepository repository = new InMemoryNotificationRepository();
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final MockEnvironment environment = new MockEnvironment();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MerchantCallbackStub stub;
+    private HttpMerchantCallbackClient callbackClient;
+    private MerchantNotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = MerchantCallbackStub.start(0, Map.of(MERCHANT, SECRET));
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        if (callbackClient != null) {
+            callbackClient.shutdown();
+        }
+        stub.close();
+    }
+
+    @Test
+    void deliversSignedCallback() {
+        start(stub.endpoint("ok", MERCHANT), SECRET);
+        InvoiceId invoiceId = repository.invoiceOf(MERCHANT);
+
+        dispatcher.onEvents(List.of(statusChanged(7, invoiceId, InvoiceStatus.SUCCEEDED)));
+        dispatcher.dispatch();
+
+        await().atMost(AWAIT).until(() -> repository.row(invoiceId).deliveredAt != null);
+        List<Callback> callbacks = stub.callbacks();
+        assertThat(callbacks).hasSize(1);
+        Callback callback = callbacks.get(0);
+        assertThat(callback.status()).isEqualTo(200);
+        assertThat(callback.signed()).isTrue();
+        assertThat(callback.sequence()).isEqualTo("7");
+        assertThat(callback.body())
+                .contains(invoiceId.getValue())
+                .contains(MERCHANT)
+                .contains("SUCCEEDED");
+    }
+
+    @Test
+    void wrongSecretIsRejectedByMerchantAndRetried() {
+        start(stub.endpoint("ok", MERCHANT), "not_the_merchants_secret");
+        InvoiceId invoiceId = repository.invoiceOf(MERCHANT);
+
+        dispatcher.onEvents(List.of(statusChanged(1, invoiceId, InvoiceStatus.SUCCEEDED)));
+        dispatcher.dispatch();
+
+        await().atMost(AWAIT).until(() -> repository.row(invoiceId).attempts == 1);
+        Row row = repository.row(invoiceId);
+        assertThat(row.deliveredAt).isNull();
+        assertThat(row.lastError).isEqualTo("HTTP 401");
+        assertThat(row.nextAttemptAt).isAfter(clock.now());
+        assertThat(stub.callbacks()).hasSize(1);
+        assertThat(stub.callbacks().get(0).signed()).isFalse();
+    }
+
+    @Test
+    void failingMerchantIsRetriedWithBackoffThenAbandoned() {
+        start(stub.endpoint("down", MERCHANT), SECRET);
+        InvoiceId invoiceId = repository.invoiceOf(MERCHANT);
+
+        dispatcher.onEvents(List.of(statusChanged(1, invoiceId, InvoiceStatus.EXPIRED)));
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            dispatcher.dispatch();
+            int expected = attempt;
+            await().atMost(AWAIT).until(() -> repository.row(invoiceId).attempts == expected && idle());
+
+            // Nothing is sent again before the backoff runs out
+            dispatcher.dispatch();
+            assertThat(stub.callbacks()).hasSize(attempt);
+            clock.advance(Duration.ofMinutes(1));
+        }
+
+        Row row = repository.row(invoiceId);
+        assertThat(row.deliveredAt).isNull();
+        assertThat(row.nextAttemptAt).isNull();
+        assertThat(row.lastError).isEqualTo("HTTP 500");
+        assertThat(stub.callbacks()).allMatch(Callback::signed);
+
+        dispatcher.dispatch();
+        assertThat(stub.callbacks()).hasSize(3);
+    }
+
+    @Test
+    void refusesToStartWithoutSigningSecret() {
+        MerchantNotificationConfig config = new MerchantNotificationConfig();
+        config.setEndpoints(Map.of(MERCHANT, stub.endpoint("ok", MERCHANT)));
+
+        assertThatThrownBy(() -> new HttpMerchantCallbackClient(objectMapper, clock, config, environment))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(MERCHANT);
+    }
+
+    private void start(URI endpoint, String secret) {
+        MerchantNotificationConfig config = new MerchantNotificationConfig();
+        config.setEndpoints(Map.of(MERCHANT, endpoint));
+        config.setSigningSecrets(Map.of(MERCHANT, secret));
+        config.setMaxAttempts(3);
+        config.setInitialBackoff(Duration.ofSeconds(5));
+        config.setMaxBackoff(Duration.ofSeconds(30));
+        config.setRequestTimeout(Duration.ofSeconds(5));
+
+        callbackClient = new HttpMerchantCallbackClient(objectMapper, clock, config, environment);
+        dispatcher = new MerchantNotificationDispatcher(
+                repository, callbackClient, new TransactionTemplate(new NoOpTransactionManager()),
+                clock, config, meterRegistry, environment);
+    }
+
+    /**
+     * @return Whether the dispatcher has no callback in flight, so the next one is not deferred as busy
+     */
+    private boolean idle() {
+        return meterRegistry.get("payme.notifications.in_flight").gauge().value() == 0;
+    }
+
+    private InvoiceEvent statusChanged(long sequence, InvoiceId invoiceId, InvoiceStatus status) {
+        return new InvoiceEvent(sequence, InvoiceEventType.INVOICE_STATUS_CHANGED, invoiceId, null,
+                status.name(), clock.now());
+    }
+
+    private static final class TestClock implements Clock {
+        private volatile Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public Instant now() {
+            return now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+
+    /**
+     * A merchant_notifications row.
+     */
+    private static final class Row {
+        final MerchantId merchantId;
+        volatile InvoiceStatus status;
+        volatile long sequence;
+        volatile Instant occurredAt;
+        volatile int attempts;
+        volatile Instant nextAttemptAt;
+        volatile Instant deliveredAt;
+        volatile String lastError;
+
+        Row(MerchantId merchantId) {
+            this.merchantId = merchantId;
+        }
+    }
+
+    /**
+     * Follows the repository contract closely enough for one node: newer
+     * events replace queued ones, and updates only apply to the claimed sequence.
+     */
+    private static final class InMemoryNotificationRepository implements MerchantNotificationRepository {
+        private final Map<InvoiceId, MerchantId> invoices = new ConcurrentHashMap<>();
+        private final Map<InvoiceId, Row> rows = new ConcurrentHashMap<>();
+
+        InvoiceId invoiceOf(String merchantId) {
+            InvoiceId invoiceId = InvoiceId.generate();
+            invoices.put(invoiceId, new MerchantId(merchantId));
+            return invoiceId;
+        }
+
+        Row row(InvoiceId invoiceId) {
+            return rows.get(invoiceId);
+        }
+
+        @Override
+        public synchronized void enqueue(List<InvoiceEvent> events, Collection<String> merchantIds, Instant now) {
+            for (InvoiceEvent event : events) {
+                MerchantId merchantId = invoices.get(event.getInvoiceId());
+                if (merchantId == null || !merchantIds.contains(merchantId.getValue())) {
+                    continue;
+                }
+                Row row = rows.computeIfAbsent(event.getInvoiceId(), id -> new Row(merchantId));
+                if (row.status != null && row.sequence >= event.getSequence()) {
+                    continue;
+                }
+                row.status = InvoiceStatus.valueOf(event.getStatus());
+                row.sequence = event.getSequence();
+                row.occurredAt = event.getOccurredAt();
+                row.attempts = 0;
+                row.nextAttemptAt = now;
+                row.deliveredAt = null;
+                row.lastError = null;
+            }
+        }
+
+        @Override
+        public synchronized List<MerchantNotification> claimDue(Instant now, Instant leaseUntil, int limit) {
+            List<Map.Entry<InvoiceId, Row>> due = rows.entrySet().stream()
+                    .filter(entry -> entry.getValue().deliveredAt == null
+                            && entry.getValue().nextAttemptAt != null
+                            && !entry.getValue().nextAttemptAt.isAfter(now))
+                    .sorted(Comparator.comparing(entry -> entry.getValue().nextAttemptAt))
+                    .limit(limit)
+                    .toList();
+            return due.stream().map(entry -> {
+                Row row = entry.getValue();
+                row.nextAttemptAt = leaseUntil;
+                return new MerchantNotification(entry.getKey(), row.merchantId, row.status, row.sequence,
+                        row.occurredAt, row.attempts);
+            }).toList();
+        }
+
+        @Override
+        public synchronized void markDelivered(MerchantNotification notification, Instant deliveredAt) {
+            Row row = rows.get(notification.getInvoiceId());
+            if (row != null && row.sequence == notification.getEventSequence()) {
+                row.deliveredAt = deliveredAt;
+                row.nextAttemptAt = null;
+            }
+        }
+
+        @Override
+        public synchronized void reschedule(MerchantNotification notification, int attempts, Instant nextAttemptAt, String error) {
+            Row row = rows.get(notification.getInvoiceId());
+            if (row != null && row.sequence == notification.getEventSequence()) {
+                // Attempts last, since the tests wait on it
+                row.nextAttemptAt = nextAttemptAt;
+                row.lastError = error;
+                row.attempts = attempts;
+            }
+        }
+    }
+}
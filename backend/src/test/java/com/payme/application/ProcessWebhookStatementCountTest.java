@@ -0,0 +1,188 @@
+package com.payme.application;
+
+import com.payme.application.StartCheckoutUseCase.CheckoutResult;
+import com.payme.domain.Currency;
+import com.payme.domain.Invoice;
+import com.payme.domain.InvoiceStatus;
+import com.payme.domain.ProviderName;
+import com.payme.ports.HashService;
+import com.payme.ports.HashedBytes;
+import com.payme.ports.InvoiceRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements a synchronous webhook costs, so a change that adds
+ * round trips to the hot path shows up here.
+ *
+ * Hibernate's statistics cover the JPA repositories; the outbox appends go
+ * through JdbcTemplate, so every statement prepared on the test thread is
+ * also counted at the DataSource. Needs Docker; skipped without it.
+ */
+@SpringBootTest(properties = {
+        "payme.payment.provider=FAKE",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(ProcessWebhookStatementCountTest.StatementCounting.class)
+@Testcontainers(disabledWithoutDocker = true)
+class ProcessWebhookStatementCountTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @Autowired
+    private CreateInvoiceUseCase createInvoiceUseCase;
+
+    @Autowired
+    private StartCheckoutUseCase startCheckoutUseCase;
+
+    @Autowired
+    private ProcessWebhookUseCase processWebhookUseCase;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private HashService hashService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void succeededWebhookCostsOneStatementPerStep() {
+        Invoice invoice = createInvoiceUseCase.execute(
+                "merchant_1", new BigDecimal("100.00"), Currency.ZAR, "Statement count", 24);
+        CheckoutResult checkout = startCheckoutUseCase.execute(invoice.getInvoiceId());
+        byte[] body = """
+                {"eventId": "evt_%s", "type": "payment.succeeded", "reference": "%s", "invoiceId": "%s"}
+                """.formatted(UUID.randomUUID(), checkout.getAttemptId(), invoice.getInvoiceId().getValue())
+                .getBytes(StandardCharsets.UTF_8);
+        HashedBytes payload = new HashedBytes(body, hashService.sha256(body));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        StatementCounter.start();
+        processWebhookUseCase.processWebhook(ProviderName.FAKE, payload, Map.of());
+        int statements = StatementCounter.stop();
+
+        // Through Hibernate: claim the event, read the attempt by ID, update the
+        // attempt, move the invoice with a conditional UPDATE, mark the event
+        // processed. No SELECT before any write.
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+        // Plus an outbox append for the attempt and one for the invoice
+        assertThat(statements).isEqualTo(7);
+
+        assertThat(invoiceRepository.findById(invoice.getInvoiceId()))
+                .hasValueSatisfying(stored -> assertThat(stored.getStatus()).isEqualTo(InvoiceStatus.SUCCEEDED));
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class StatementCounting {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CountingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Counts statements prepared on the thread that started counting, so the
+     * pollers running in the background are left out.
+     */
+    static final class StatementCounter {
+        private static final AtomicReference<Thread> countedThread = new AtomicReference<>();
+        private static final AtomicInteger count = new AtomicInteger();
+
+        static void start() {
+            count.set(0);
+            countedThread.set(Thread.currentThread());
+        }
+
+        static int stop() {
+            countedThread.set(null);
+            return count.get();
+        }
+
+        static void statementPrepared() {
+            if (countedThread.get() == Thread.currentThread()) {
+                count.incrementAndGet();
+            }
+        }
+    }
+
+    static final class CountingDataSource extends DelegatingDataSource {
+
+        private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "prepareCall", "createStatement");
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    CountingDataSource.class.getClassLoader(),
+                    new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> {
+                        // Spring matches a released connection against the bound one
+                        if (method.getName().equals("equals")) {
+                            return proxy == args[0];
+                        }
+                        if (method.getName().equals("hashCode")) {
+                            return System.identityHashCode(proxy);
+                        }
+                        if (STATEMENT_METHODS.contains(method.getName())) {
+                            StatementCounter.statementPrepared();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
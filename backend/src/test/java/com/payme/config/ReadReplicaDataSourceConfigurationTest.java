@@ -0,0 +1,63 @@
+package com.payme.config;
+
+import com.payme.adapters.persistence.ReadOnlyRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.ConfigurationPropertiesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks when read routing is set up. Neither pool connects until used, so no
+ * database is needed; where the connections go is covered by
+ * ReadOnlyRoutingDataSourceTest.
+ */
+class ReadReplicaDataSourceConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ConfigurationPropertiesAutoConfiguration.class))
+            .withUserConfiguration(ReadReplicaConfig.class, ReadReplicaDataSourceConfiguration.class)
+            .withBean(DataSourceProperties.class, () -> {
+                DataSourceProperties properties = new DataSourceProperties();
+                properties.setUrl("jdbc:postgresql://primary:5432/payme");
+                return properties;
+            });
+
+    @Test
+    void nothingIsRoutedWithoutReplicaUrl() {
+        contextRunner
+                .withPropertyValues("payme.datasource.replica.url=")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context).doesNotHaveBean("primaryDataSource");
+                    assertThat(context).doesNotHaveBean("replicaDataSource");
+                    assertThat(context).doesNotHaveBean(DataSource.class);
+                });
+    }
+
+    @Test
+    void routesReadOnlyTransactionsWhenReplicaUrlIsSet() {
+        contextRunner
+                .withPropertyValues("payme.datasource.replica.url=jdbc:postgresql://replica:5432/payme")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+
+                    DataSource dataSource = context.getBean(DataSource.class);
+                    assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+                    assertThat(((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource())
+                            .isInstanceOf(ReadOnlyRoutingDataSource.class);
+
+                    HikariDataSource replica = context.getBean("replicaDataSource", HikariDataSource.class);
+                    assertThat(replica.getJdbcUrl()).isEqualTo("jdbc:postgresql://replica:5432/payme");
+                    assertThat(replica.isReadOnly()).isTrue();
+                    assertThat(context.getBean("primaryDataSource", HikariDataSource.class).getJdbcUrl())
+                            .isEqualTo("jdbc:postgresql://primary:5432/payme");
+                });
+    }
+}
@@ -0,0 +1,75 @@
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stands in for the servlet response behind an emitter, so tests can see what
+ * was sent without a container. Lives in Spring's package because attaching a
+ * handler is package-private there.
+ */
+public final class RecordingEmitterHandler implements ResponseBodyEmitter.Handler {
+
+    private final List<Object> sent = new CopyOnWriteArrayList<>();
+    private volatile boolean completed;
+
+    private RecordingEmitterHandler() {
+    }
+
+    /**
+     * Attaches a recording handler, replaying anything sent before.
+     */
+    public static RecordingEmitterHandler attach(ResponseBodyEmitter emitter) throws IOException {
+        RecordingEmitterHandler handler = new RecordingEmitterHandler();
+        emitter.initialize(handler);
+        return handler;
+    }
+
+    /**
+     * @return The objects sent so far, in order, leaving out SSE framing
+     */
+    public <T> List<T> sent(Class<T> type) {
+        return sent.stream().filter(type::isInstance).map(type::cast).toList();
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    @Override
+    public void send(Object data, MediaType mediaType) {
+        sent.add(data);
+    }
+
+    @Override
+    public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+        items.forEach(item -> sent.add(item.getData()));
+    }
+
+    @Override
+    public void complete() {
+        completed = true;
+    }
+
+    @Override
+    public void completeWithError(Throwable failure) {
+        completed = true;
+    }
+
+    @Override
+    public void onTimeout(Runnable callback) {
+    }
+
+    @Override
+    public void onError(Consumer<Throwable> callback) {
+    }
+
+    @Override
+    public void onCompletion(Runnable callback) {
+    }
+}
@@ -0,0 +1,77 @@
+#!/bin/bash
+
+# Webhook load benchmark
+# Measures sustained webhooks/sec and p99 latency of POST /webhooks/FAKE at
+# increasing client concurrency against a running instance.
+#
+# To compare thread models, run it twice against the same database:
+#   1. Platform threads:  ./backend/mvnw spring-boot:run
+#   2. Virtual threads:   VIRTUAL_THREADS_ENABLED=true ./backend/mvnw -Pjava21 spring-boot:run   (Java 21)
+# The highest concurrency level whose error rate stays at zero and whose p99
+# stays within your latency budget is the max sustainable rate for that mode.
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+CONCURRENCY_LEVELS=${CONCURRENCY_LEVELS:-"8 32 128 512"}
+REQUESTS=${REQUESTS:-2000}
+INVOICES=${INVOICES:-50}
+RUN_ID=${RUN_ID:-$(date +%s)}
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+echo "=== PayMe Webhook Benchmark ==="
+echo "Target: $BASE_URL, requests per level: $REQUESTS, invoices: $INVOICES"
+echo ""
+
+# Step 1: Create invoices with a pending payment attempt each
+echo "Creating $INVOICES invoices with pending payment attempts..."
+for i in $(seq 1 "$INVOICES"); do
+    invoice_id=$(curl -s -X POST "$BASE_URL/api/invoices" \
+        -H "Content-Type: application/json" \
+        -d '{"merchantId":"merchant_bench","amount":100,"currency":"ZAR","description":"Benchmark invoice","expiryHours":24}' \
+        | sed -n 's/.*"invoiceId":"\([^"]*\)".*/\1/p')
+    attempt_id=$(curl -s -X POST "$BASE_URL/pay/$invoice_id/checkout" \
+        | sed -n 's/.*"attemptId":"\([^"]*\)".*/\1/p')
+
+    if [ -z "$invoice_id" ] || [ -z "$attempt_id" ]; then
+        echo "Failed to prepare invoice $i. Is the application running with the FAKE provider?"
+        exit 1
+    fi
+    echo "$invoice_id fake_ref_$attempt_id" >> "$WORK_DIR/targets"
+done
+
+mapfile -t TARGETS < "$WORK_DIR/targets"
+export BASE_URL RUN_ID
+
+# Sends one payment.pending webhook with a unique event ID and prints "<http code> <seconds>"
+send_webhook() {
+    local n=$1 invoice_id=$2 reference=$3
+    curl -s -o /dev/null -w "%{http_code} %{time_total}\n" -X POST "$BASE_URL/webhooks/FAKE" \
+        -H "Content-Type: application/json" \
+        -d "{\"eventId\":\"bench_${RUN_ID}_${n}\",\"type\":\"payment.pending\",\"reference\":\"$reference\",\"invoiceId\":\"$invoice_id\"}"
+}
+export -f send_webhook
+
+echo ""
+printf "%-12s %-10s %-12s %-10s %-10s\n" "concurrency" "errors" "webhooks/s" "p50 (ms)" "p99 (ms)"
+
+# Step 2: Fire webhooks at each concurrency level
+for concurrency in $CONCURRENCY_LEVELS; do
+    results="$WORK_DIR/results_$concurrency"
+
+    for n in $(seq 1 "$REQUESTS"); do
+        echo "${concurrency}_${n} ${TARGETS[$((n % INVOICES))]}"
+    done > "$WORK_DIR/jobs"
+
+    started=$(date +%s.%N)
+    xargs -P "$concurrency" -L 1 bash -c 'send_webhook "$0" "$1" "$2"' < "$WORK_DIR/jobs" > "$results"
+    finished=$(date +%s.%N)
+
+    errors=$(awk '$1 != 200' "$results" | wc -l)
+    throughput=$(echo "$REQUESTS / ($finished - $started)" | bc -l)
+    sort -n -k2 "$results" | awk '{print $2}' > "$results.sorted"
+    p50=$(awk -v n="$REQUESTS" 'NR == int(n * 0.50) {printf "%.1f", $1 * 1000}' "$results.sorted")
+    p99=$(awk -v n="$REQUESTS" 'NR == int(n * 0.99) {printf "%.1f", $1 * 1000}' "$results.sorted")
+
+    printf "%-12s %-10s %-12.1f %-10s %-10s\n" "$concurrency" "$errors" "$throughput" "$p50" "$p99"
+done